@@ -0,0 +1,178 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Hot paths of the game core on the boards the app plays, plus a big board at two densities.
+// Everything runs headless against Game / BoardModel, only boardResized touches a (never shown) canvas.
+// Run with ./gradlew :benchmarks:jmh, results land in benchmarks/build/results/jmh/results.json.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameBenchmarks {
+    // The named sizes come with their real mine counts from Simulator.parseDifficulty. The big board has no
+    // standard count: sparse is about one mine in ten cells so reveals cascade far, dense is about one in five.
+    @Param({"beginner", "intermediate", "expert", "1000x1000-sparse", "1000x1000-dense"})
+    public String size;
+
+    int rows;
+    int cols;
+    int mines;
+    long seed = 42;
+    int start; // First click, the middle of the board
+
+    Game game;
+    BoardCanvas canvas;
+    Game resizeGame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (size) {
+            case "1000x1000-sparse":
+                rows = 1000;
+                cols = 1000;
+                mines = rows * cols / 10;
+                break;
+            case "1000x1000-dense":
+                rows = 1000;
+                cols = 1000;
+                mines = rows * cols / 5;
+                break;
+            default:
+                int[] difficulty = Simulator.parseDifficulty(size);
+                rows = difficulty[0];
+                cols = difficulty[1];
+                mines = difficulty[2];
+                break;
+        }
+        start = (rows / 2) * cols + cols / 2;
+
+        game = new Game(rows, cols, mines);
+        game.reset(seed);
+        game.setMines(start);
+
+        resizeGame = new Game(rows, cols, mines);
+        canvas = new BoardCanvas(resizeGame.model, 16);
+    }
+
+    // A mined board that is hidden again before every call, kept apart so the other benchmarks
+    // don't pay for the per-call setup. Only the words the last reveal opened are hidden again, so the setup
+    // costs about what the cascade did rather than a sweep of the whole board. Even so, on small boards the
+    // per-invocation setup and its timestamps are of the same order as the reveal, read those results as a bound.
+    @State(Scope.Thread)
+    public static class Cascade {
+        Game game;
+        int cell; // An empty cell near the middle, so the reveal really cascades
+
+        @Setup(Level.Trial)
+        public void setUp(GameBenchmarks bench) {
+            game = new Game(bench.rows, bench.cols, bench.mines);
+            game.reset(bench.seed);
+            game.setMines(bench.start);
+            BoardModel model = game.model;
+            cell = bench.start;
+            for (int k = 0; k < model.cellCount; k++) {
+                int i = (bench.start + k) % model.cellCount;
+                if (!model.isMine(i) && model.adjacentMines(i) == 0) {
+                    cell = i;
+                    break;
+                }
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void hideAll() {
+            BoardModel model = game.model;
+            ChangeSet opened = game.changes; // checkMine leaves the cells it opened here
+            for (int k = 0; k < opened.count; k++) {
+                model.setWord(CellStore.REVEALED, opened.cells[k] >>> 6, 0);
+            }
+            opened.clear();
+            game.tilesClicked = 0;
+            game.flagCount = 0;
+            game.state = Game.PLAYING;
+        }
+    }
+
+    @Benchmark
+    public int setMines() {
+        game.model.clear();
+        game.setMines(start);
+        return game.model.mineCount;
+    }
+
+    // The 3BV pass over the mines placed in setUp, on its own so it isn't read as placement cost
+    @Benchmark
+    public int score() {
+        game.score();
+        return game.threeBV;
+    }
+
+    @Benchmark
+    public int countMine() {
+        int total = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        total += game.countMine(r + dr, c + dc);
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int checkMine(Cascade cascade) {
+        cascade.game.checkMine(cascade.cell);
+        return cascade.game.tilesClicked;
+    }
+
+    // A game that was played: the opening click placed the mines and opened its cascade, so the reset
+    // has dirty words to clear. Same per-invocation setup caveat as Cascade.
+    @State(Scope.Thread)
+    public static class Played {
+        Game game;
+        int start;
+
+        @Setup(Level.Trial)
+        public void setUp(GameBenchmarks bench) {
+            game = new Game(bench.rows, bench.cols, bench.mines);
+            start = bench.start;
+        }
+
+        @Setup(Level.Invocation)
+        public void playOpening() {
+            game.reveal(start);
+        }
+    }
+
+    @Benchmark
+    public void resetGame(Played played, Blackhole blackhole) {
+        played.game.reset(seed);
+        blackhole.consume(played.game.model);
+    }
+
+    // Alternates between two sizes so every call really rebuilds the board
+    @Benchmark
+    public void setDifficulty(Blackhole blackhole) {
+        if (resizeGame.numRows == rows) {
+            resizeGame.setDifficulty(rows + 1, cols, mines);
+        } else {
+            resizeGame.setDifficulty(rows, cols, mines);
+        }
+        canvas.boardResized(16, 1.0);
+        blackhole.consume(resizeGame.model);
+    }
+}
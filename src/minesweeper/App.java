@@ -0,0 +1,39 @@
+package minesweeper;
+
+import java.util.Arrays;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+public class App {
+    public static void main(String[] args) throws Exception {
+        // Headless modes never touch Swing
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            Simulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--replay")) {
+            Replay.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--load")) {
+            LoadClient.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        Startup.mark("main");
+        // Images decode and the first sprites render on another thread while the look and feel loads here,
+        // then the window is built on the EDT
+        Minesweeper.preloadAssets();
+        try {
+            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        Startup.mark("look and feel");
+        SwingUtilities.invokeLater(Minesweeper::new);
+    }
+}
@@ -0,0 +1,250 @@
+package minesweeper;
+
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+// Paints the whole board from the BoardModel in one component instead of a JButton per tile.
+// Mouse positions are turned into cells with arithmetic, and only the cells inside the clip are painted,
+// so a board much bigger than the window just scrolls.
+@SuppressWarnings("serial") // Never serialized
+public class BoardCanvas extends JComponent implements Scrollable {
+    static final int MIN_TILE_SIZE = 8;
+    static final int MAX_TILE_SIZE = 100;
+
+    static final Color SAFE_OVERLAY = new Color(0, 200, 0, 90);
+    static final Color HINT_OUTLINE = new Color(255, 200, 0);
+
+    // Called with the cell index under the mouse, or -1 when the click was off the board
+    interface CellListener {
+        void cellPressed(int i, int button);
+        void cellReleased(int i, int button);
+    }
+
+    BoardModel model;
+    CellListener listener;
+    int tileSize;
+    double textScale = 2;
+    boolean showMines = false; // Set when the game is lost
+    Dimension maxViewport = new Dimension(800, 800);
+    long[] safeOverlay; // Cells the solver proved safe, null when the overlay is off
+    int hintCell = -1;
+    Metrics metrics;
+    long clickNanos; // When the click behind the next paint arrived, 0 when nothing is waiting to be shown
+    Runnable onFirstPaint; // Run once, after the first paint finished
+
+    private SpriteAtlas atlas;
+    private int pressedCell = -1;
+
+    BoardCanvas(BoardModel model, int tileSize) {
+        this.model = model;
+        setOpaque(true);
+        setTileSize(tileSize);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                // Like a button, the release goes to the tile that was pressed even if the mouse moved off it
+                pressedCell = cellAt(e.getX(), e.getY());
+                if (listener != null) {
+                    listener.cellPressed(pressedCell, e.getButton());
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                if (listener != null) {
+                    listener.cellReleased(pressedCell, e.getButton());
+                }
+                pressedCell = -1;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (e.isControlDown()) {
+                    zoom(e.getWheelRotation() < 0 ? 1 : -1, e.getPoint());
+                } else {
+                    getParent().dispatchEvent(SwingUtilities.convertMouseEvent(BoardCanvas.this, e, getParent()));
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    void setTileSize(int size) {
+        tileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, size));
+        atlas = SpriteAtlas.forTileSize(tileSize, Math.max(1, (int)(tileSize / textScale))); // Font scales with tile size
+        if (!atlas.complete) {
+            SpriteAtlas.whenImagesLoaded(() -> setTileSize(tileSize));
+        }
+        revalidate();
+        repaint();
+    }
+
+    void setTextScale(double scale) {
+        textScale = scale;
+        setTileSize(tileSize);
+    }
+
+    // Board size changed, the model has already been resized
+    void boardResized(int size, double scale) {
+        showMines = false;
+        hintCell = -1;
+        safeOverlay = null;
+        textScale = scale;
+        setTileSize(size);
+    }
+
+    int cellAt(int x, int y) {
+        int c = x / tileSize;
+        int r = y / tileSize;
+        if (x < 0 || y < 0 || !model.inBounds(r, c)) {
+            return -1;
+        }
+        return model.index(r, c);
+    }
+
+    void repaintCell(int i) {
+        repaint(model.col(i) * tileSize, model.row(i) * tileSize, tileSize, tileSize);
+    }
+
+    // Big cascades just repaint what is on screen instead of queueing thousands of rectangles
+    void repaintCells(int[] cells, int count) {
+        if (count > 256) {
+            repaint(getVisibleRect());
+            return;
+        }
+        for (int k = 0; k < count; k++) {
+            repaintCell(cells[k]);
+        }
+    }
+
+    // Zooms one step in or out, keeping the cell under the mouse in place
+    void zoom(int direction, Point anchor) {
+        int oldSize = tileSize;
+        int step = Math.max(1, tileSize / 8);
+        setTileSize(tileSize + direction * step);
+        if (tileSize == oldSize) {
+            return;
+        }
+        Rectangle view = getVisibleRect();
+        double factor = (double) tileSize / oldSize;
+        int dx = (int) (anchor.x * factor) - anchor.x;
+        int dy = (int) (anchor.y * factor) - anchor.y;
+        view.translate(dx, dy);
+        SwingUtilities.invokeLater(() -> scrollRectToVisible(view));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(model.numCols * tileSize, model.numRows * tileSize);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int c0 = Math.max(0, clip.x / tileSize);
+        int r0 = Math.max(0, clip.y / tileSize);
+        int c1 = Math.min(model.numCols - 1, (clip.x + clip.width - 1) / tileSize);
+        int r1 = Math.min(model.numRows - 1, (clip.y + clip.height - 1) / tileSize);
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                atlas.draw(g, spriteFor(model.index(r, c)), c * tileSize, r * tileSize);
+            }
+        }
+
+        if (safeOverlay != null) {
+            g.setColor(SAFE_OVERLAY);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int i = model.index(r, c);
+                    if (BoardModel.get(safeOverlay, i) && !model.isRevealed(i)) {
+                        g.fillRect(c * tileSize, r * tileSize, tileSize, tileSize);
+                    }
+                }
+            }
+        }
+        if (hintCell >= 0 && hintCell < model.cellCount) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setColor(HINT_OUTLINE);
+            g2.setStroke(new BasicStroke(Math.max(2, tileSize / 10f)));
+            g2.drawRect(model.col(hintCell) * tileSize + 1, model.row(hintCell) * tileSize + 1, tileSize - 3, tileSize - 3);
+        }
+
+        if (clickNanos != 0 && metrics != null) {
+            metrics.recordClickToPaint(clickNanos);
+            clickNanos = 0;
+        }
+        if (onFirstPaint != null) {
+            Runnable first = onFirstPaint;
+            onFirstPaint = null;
+            first.run();
+        }
+    }
+
+    void setHintCell(int i) {
+        if (hintCell >= 0 && hintCell < model.cellCount) {
+            repaintCell(hintCell);
+        }
+        hintCell = i;
+        if (i >= 0) {
+            repaintCell(i);
+            scrollRectToVisible(new Rectangle(model.col(i) * tileSize, model.row(i) * tileSize, tileSize, tileSize));
+        }
+    }
+
+    void setSafeOverlay(long[] safe) {
+        safeOverlay = safe;
+        repaint();
+    }
+
+    int spriteFor(int i) {
+        if (model.isRevealed(i)) {
+            return SpriteAtlas.OPEN + model.adjacentMines(i);
+        }
+        if (showMines && model.isMine(i)) {
+            return model.isFlagged(i) ? SpriteAtlas.FLAGGED_MINE : SpriteAtlas.MINE;
+        }
+        if (model.isFlagged(i)) {
+            return SpriteAtlas.FLAG;
+        }
+        if (model.isQuestioned(i)) {
+            return SpriteAtlas.QUESTION;
+        }
+        return SpriteAtlas.HIDDEN;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, maxViewport.width), Math.min(size.height, maxViewport.height));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return tileSize;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -0,0 +1,272 @@
+package minesweeper;
+
+// Headless board state, no Swing in here.
+// Cells are addressed by index = r * numCols + c and every per-cell flag lives in a packed bitset,
+// so mine / revealed / flag lookups are a single word read instead of a list scan.
+// Storage is pooled: every write marks its 64-cell word dirty, clear() only zeroes dirty words,
+// and resize() keeps the storage when it is already big enough.
+// The bits live in a CellStore, on the heap by default or in an OffHeapArena for servers holding many boards.
+public class BoardModel {
+    static final int TRIM_WORDS = 1 << 14; // Pools above a million cells are given back when the board shrinks a lot
+
+    int numRows;
+    int numCols;
+    int cellCount;
+    int mineCount;
+
+    final CellStore store; // Mine, revealed, flag and question mark planes, and the number of mines around each cell
+    long[] dirty = new long[0]; // One bit per word of the store that was written since the last clear
+    int words; // Words in use, the pooled store can be bigger
+
+    BoardModel(int rows, int cols) {
+        this(rows, cols, new HeapCellStore());
+    }
+
+    BoardModel(int rows, int cols, CellStore store) {
+        this.store = store;
+        resize(rows, cols);
+    }
+
+    // Everything outside the dirty words is already zero, so a board that fits the pool only needs a clear
+    void resize(int rows, int cols) {
+        int cells = rows * cols;
+        int needed = (cells + 63) >>> 6;
+        int capacity = store.capacity();
+        clear();
+        if (capacity == 0 || needed > capacity || (capacity > TRIM_WORDS && capacity > needed * 4)) {
+            store.allocate(Math.max(1, needed));
+            dirty = new long[(store.capacity() + 63) >>> 6];
+        }
+        numRows = rows;
+        numCols = cols;
+        cellCount = cells;
+        words = needed;
+        mineCount = 0;
+    }
+
+    // Zeroes only the words touched since the last clear, a short game costs a handful of words
+    void clear() {
+        for (int d = 0; d < dirty.length; d++) {
+            long bits = dirty[d];
+            while (bits != 0) {
+                int w = (d << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                store.clearWord(w);
+            }
+            dirty[d] = 0;
+        }
+        mineCount = 0;
+    }
+
+    // Clears the board and gives its storage back, it has to be resized before it is used again
+    void release() {
+        clear();
+        store.release();
+        dirty = new long[0];
+        numRows = numCols = cellCount = words = 0;
+    }
+
+    // Number of dirty words, what the next clear() will have to zero
+    int dirtyWords() {
+        int count = 0;
+        for (long bits : dirty) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    private void touch(int i) {
+        touchWord(i >>> 6);
+    }
+
+    private void touchWord(int w) {
+        dirty[w >>> 6] |= 1L << w;
+    }
+
+    // Copy of what the player can see (opened tiles and their numbers, flags), without the mines.
+    // Safe to hand to another thread while the game goes on.
+    BoardModel visibleCopy() {
+        return visibleWords().build();
+    }
+
+    // The part of visibleCopy that has to happen on the game's thread: plain copies of the revealed, flag and
+    // mine words, the way History snapshots a board. Building the model and its numbers from them, which costs
+    // a board-sized allocation, can then happen on any thread.
+    VisibleWords visibleWords() {
+        VisibleWords snapshot = new VisibleWords(numRows, numCols, words);
+        for (int w = 0; w < words; w++) {
+            snapshot.revealed[w] = store.word(CellStore.REVEALED, w);
+            snapshot.flagged[w] = store.word(CellStore.FLAGGED, w);
+            snapshot.mines[w] = store.word(CellStore.MINES, w);
+        }
+        return snapshot;
+    }
+
+    static class VisibleWords {
+        final int rows;
+        final int cols;
+        final long[] revealed;
+        final long[] flagged;
+        final long[] mines; // Only read to count the neighbours of opened cells, never copied into the model
+
+        VisibleWords(int rows, int cols, int words) {
+            this.rows = rows;
+            this.cols = cols;
+            revealed = new long[words];
+            flagged = new long[words];
+            mines = new long[words];
+        }
+
+        BoardModel build() {
+            BoardModel copy = new BoardModel(rows, cols);
+            for (int w = 0; w < revealed.length; w++) {
+                if (revealed[w] != 0) {
+                    copy.setWord(CellStore.REVEALED, w, revealed[w]);
+                }
+                if (flagged[w] != 0) {
+                    copy.setWord(CellStore.FLAGGED, w, flagged[w]);
+                }
+            }
+            for (int i = copy.nextRevealed(0); i >= 0; i = copy.nextRevealed(i + 1)) {
+                copy.store.setAdjacent(i, countMines(i));
+            }
+            return copy;
+        }
+
+        private int countMines(int i) {
+            int r = i / cols;
+            int c = i % cols;
+            int count = 0;
+            for (int nr = Math.max(0, r - 1); nr <= Math.min(rows - 1, r + 1); nr++) {
+                for (int nc = Math.max(0, c - 1); nc <= Math.min(cols - 1, c + 1); nc++) {
+                    if ((nr != r || nc != c) && get(mines, nr * cols + nc)) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    int index(int r, int c) {
+        return r * numCols + c;
+    }
+
+    int row(int i) {
+        return i / numCols;
+    }
+
+    int col(int i) {
+        return i % numCols;
+    }
+
+    boolean inBounds(int r, int c) {
+        return r >= 0 && r < numRows && c >= 0 && c < numCols;
+    }
+
+    // Places a mine and bumps the neighbour count of the 8 cells around it
+    void placeMine(int i) {
+        if (store.get(CellStore.MINES, i)) {
+            return;
+        }
+        store.set(CellStore.MINES, i, true);
+        touch(i);
+        mineCount++;
+
+        int r = row(i);
+        int c = col(i);
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((dr != 0 || dc != 0) && inBounds(r + dr, c + dc)) {
+                    int n = i + dr * numCols + dc;
+                    store.setAdjacent(n, store.adjacent(n) + 1);
+                    touch(n);
+                }
+            }
+        }
+    }
+
+    boolean isMine(int i) {
+        return store.get(CellStore.MINES, i);
+    }
+
+    boolean isMine(int r, int c) {
+        return inBounds(r, c) && store.get(CellStore.MINES, index(r, c));
+    }
+
+    int adjacentMines(int i) {
+        return store.adjacent(i);
+    }
+
+    // Next opened cell at or after index from, -1 if there are none left
+    int nextRevealed(int from) {
+        return nextSetBit(CellStore.REVEALED, from);
+    }
+
+    boolean isRevealed(int i) {
+        return store.get(CellStore.REVEALED, i);
+    }
+
+    void setRevealed(int i, boolean value) {
+        store.set(CellStore.REVEALED, i, value);
+        touch(i);
+    }
+
+    boolean isFlagged(int i) {
+        return store.get(CellStore.FLAGGED, i);
+    }
+
+    void setFlagged(int i, boolean value) {
+        store.set(CellStore.FLAGGED, i, value);
+        touch(i);
+    }
+
+    boolean isQuestioned(int i) {
+        return store.get(CellStore.QUESTIONED, i);
+    }
+
+    void setQuestioned(int i, boolean value) {
+        store.set(CellStore.QUESTIONED, i, value);
+        touch(i);
+    }
+
+    // Whole 64-cell words of a plane, for saving and hashing a board
+    long word(int plane, int w) {
+        return store.word(plane, w);
+    }
+
+    void setWord(int plane, int w, long value) {
+        store.setWord(plane, w, value);
+        touchWord(w);
+    }
+
+    static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    static void set(long[] bits, int i, boolean value) {
+        if (value) {
+            bits[i >>> 6] |= 1L << i;
+        } else {
+            bits[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    int nextSetBit(int plane, int from) {
+        if (from >= cellCount) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = store.word(plane, w) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < cellCount ? i : -1;
+            }
+            if (++w >= words) {
+                return -1;
+            }
+            word = store.word(plane, w);
+        }
+    }
+}
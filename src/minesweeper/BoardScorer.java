@@ -0,0 +1,193 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Scores a board once its mines are placed:
+//   openings  areas of connected empty cells, one click opens each
+//   islands   groups of touching numbered cells that no opening reaches, they have to be clicked one by one
+//   3BV       openings plus every numbered cell no opening reaches, the fewest clicks that clear the board
+// Cells are classed and joined with union-find, 8-connected. Big boards are cut into strips of rows that are
+// classed and joined in parallel, each strip only linking cells inside itself, then the rows where strips
+// meet are joined in one pass. Every successful union merges two components, so the counts come out of
+// the union counts without a final pass over the board.
+public class BoardScorer {
+    static final int PARALLEL_CELLS = 1 << 18; // Smaller boards are scored on the calling thread
+    static final int STRIP_CELLS = 1 << 16; // Rows per strip are chosen to give about this many cells
+
+    static final byte OTHER = 0; // A mine, or a number next to an opening
+    static final byte EMPTY = 1;
+    static final byte ISOLATED = 2; // A number no opening reaches
+    static final byte NUMBER = 3; // A number not looked at yet, only while a strip is being classed
+
+    private int[] parent = new int[0]; // Reused between boards, only grows
+    private byte[] kind = new byte[0];
+
+    int openings;
+    int islands;
+    int isolatedNumbers;
+
+    int threeBV() {
+        return openings + isolatedNumbers;
+    }
+
+    void score(BoardModel model) {
+        int cells = model.cellCount;
+        if (parent.length < cells) {
+            parent = new int[cells];
+            kind = new byte[cells];
+        }
+        int rows = model.numRows;
+        int rowsPerStrip = Math.max(1, STRIP_CELLS / Math.max(1, model.numCols));
+        int strips = cells < PARALLEL_CELLS ? 1 : (rows + rowsPerStrip - 1) / rowsPerStrip;
+        int stripRows = strips == 1 ? rows : rowsPerStrip;
+
+        AtomicInteger emptyCount = new AtomicInteger();
+        AtomicInteger isolatedCount = new AtomicInteger();
+        AtomicInteger islandCount = new AtomicInteger();
+        if (strips == 1) {
+            scoreStrip(model, 0, rows, emptyCount, isolatedCount, islandCount);
+        } else {
+            IntStream.range(0, strips).parallel().forEach(s -> scoreStrip(model, s * stripRows,
+                    Math.min(rows, (s + 1) * stripRows), emptyCount, isolatedCount, islandCount));
+        }
+        openings = emptyCount.get();
+        islands = islandCount.get();
+        isolatedNumbers = isolatedCount.get();
+
+        // Components that continue across a strip edge were counted once on each side
+        int numCols = model.numCols;
+        for (int r = stripRows; r < rows; r += stripRows) {
+            for (int c = 0; c < numCols; c++) {
+                int i = r * numCols + c;
+                byte k = kind[i];
+                if (k == OTHER) {
+                    continue;
+                }
+                int merged = 0;
+                for (int dc = -1; dc <= 1; dc++) {
+                    int nc = c + dc;
+                    if (nc >= 0 && nc < numCols && kind[i - numCols + dc] == k && union(i, i - numCols + dc)) {
+                        merged++;
+                    }
+                }
+                if (k == EMPTY) {
+                    openings -= merged;
+                } else {
+                    islands -= merged;
+                }
+            }
+        }
+    }
+
+    // Classes and joins the cells of rows [r0, r1), looking at the rows on either side only to read the board
+    private void scoreStrip(BoardModel model, int r0, int r1, AtomicInteger emptyCount, AtomicInteger isolatedCount,
+                            AtomicInteger islandCount) {
+        int numRows = model.numRows;
+        int numCols = model.numCols;
+        for (int i = r0 * numCols; i < r1 * numCols; i++) {
+            kind[i] = model.isMine(i) ? OTHER : model.adjacentMines(i) == 0 ? EMPTY : NUMBER;
+        }
+
+        int components = 0;
+        int isolated = 0;
+        int islandComponents = 0;
+        for (int r = r0; r < r1; r++) {
+            // Numbers in this row are settled first, the rows above and below are classed by now
+            for (int c = 0; c < numCols; c++) {
+                int i = r * numCols + c;
+                if (kind[i] == NUMBER) {
+                    kind[i] = nearOpening(model, r, c, r0, r1, numRows, numCols) ? OTHER : ISOLATED;
+                }
+            }
+            for (int c = 0; c < numCols; c++) {
+                int i = r * numCols + c;
+                byte k = kind[i];
+                parent[i] = i;
+                if (k == OTHER) {
+                    continue;
+                }
+                // Each new cell starts a component, joining one already scanned merges it away.
+                // Scanned neighbours that touch each other are already joined, so at most two links are needed:
+                // the cell above touches all the others, and the left or upper left one only misses the upper right.
+                boolean up = r > r0 && kind[i - numCols] == k;
+                boolean upLeft = r > r0 && c > 0 && kind[i - numCols - 1] == k;
+                boolean upRight = r > r0 && c < numCols - 1 && kind[i - numCols + 1] == k;
+                boolean left = c > 0 && kind[i - 1] == k;
+                int merged = 1;
+                if (up) {
+                    parent[i] = find(i - numCols);
+                } else if (upRight) {
+                    parent[i] = find(i - numCols + 1);
+                    if ((left && union(i, i - 1)) || (!left && upLeft && union(i, i - numCols - 1))) {
+                        merged++;
+                    }
+                } else if (left) {
+                    parent[i] = find(i - 1);
+                } else if (upLeft) {
+                    parent[i] = find(i - numCols - 1);
+                } else {
+                    merged = 0;
+                }
+                if (k == EMPTY) {
+                    components += 1 - merged;
+                } else {
+                    isolated++;
+                    islandComponents += 1 - merged;
+                }
+            }
+        }
+        emptyCount.addAndGet(components);
+        isolatedCount.addAndGet(isolated);
+        islandCount.addAndGet(islandComponents);
+    }
+
+    // Inside the strip the classes say which cells are empty, the rows just outside it belong to another
+    // strip and are read from the board instead
+    private boolean nearOpening(BoardModel model, int r, int c, int r0, int r1, int numRows, int numCols) {
+        int rMin = Math.max(r - 1, 0), rMax = Math.min(r + 1, numRows - 1);
+        int cMin = Math.max(c - 1, 0), cMax = Math.min(c + 1, numCols - 1);
+        for (int nr = rMin; nr <= rMax; nr++) {
+            boolean inside = nr >= r0 && nr < r1;
+            for (int nc = cMin; nc <= cMax; nc++) {
+                int n = nr * numCols + nc;
+                if (inside ? kind[n] == EMPTY : !model.isMine(n) && model.adjacentMines(n) == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Path halving, true when a and b were in different components
+    private boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        // The later cell points at the earlier one, so roots stay inside the strip that scanned them first
+        if (ra < rb) {
+            parent[rb] = ra;
+        } else {
+            parent[ra] = rb;
+        }
+        return true;
+    }
+
+    // Only writes when the path is longer than one step, most cells already point at their root
+    private int find(int i) {
+        while (true) {
+            int p = parent[i];
+            if (p == i) {
+                return i;
+            }
+            int g = parent[p];
+            if (g == p) {
+                return p;
+            }
+            parent[i] = g;
+            i = g;
+        }
+    }
+}
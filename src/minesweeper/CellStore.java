@@ -0,0 +1,39 @@
+package minesweeper;
+
+// Where a BoardModel keeps its cells: four bit planes (mine, revealed, flag, question mark) of 64-cell words
+// and a neighbour count per cell. HeapCellStore uses plain arrays, OffHeapArena packs many boards into
+// direct memory. The BoardModel owns the rules of the layout (dirty words, pooling), stores just hold bits.
+//
+// Storage handed out by allocate is all zero, and a store must be cleared before it is released,
+// so reused storage never has to be wiped in full.
+public interface CellStore {
+    int MINES = 0;
+    int REVEALED = 1;
+    int FLAGGED = 2;
+    int QUESTIONED = 3;
+    int PLANES = 4;
+
+    // Words per plane the store can hold, 0 before the first allocate
+    int capacity();
+
+    // Replaces the storage with zeroed storage for at least words words per plane
+    void allocate(int words);
+
+    boolean get(int plane, int i);
+
+    void set(int plane, int i, boolean value);
+
+    long word(int plane, int w);
+
+    void setWord(int plane, int w, long value);
+
+    int adjacent(int i);
+
+    void setAdjacent(int i, int count);
+
+    // Zeroes the 64 cells of word w in every plane, and their neighbour counts
+    void clearWord(int w);
+
+    // Gives the storage back, the store can be allocated again afterwards
+    void release();
+}
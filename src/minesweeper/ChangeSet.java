@@ -0,0 +1,28 @@
+package minesweeper;
+
+// Everything a single move changed: the cells to redraw plus how the counters moved.
+// The Game hands back the same instance for every move, so the view reads it and lets it go.
+public class ChangeSet {
+    private static final int[] NO_CELLS = new int[0];
+
+    int[] cells = NO_CELLS; // Only the first count entries are valid
+    int count;
+    boolean allCells; // Set when the whole board has to be redrawn, e.g. mines shown on a loss
+
+    int openedDelta; // Tiles opened by this move
+    int flagDelta; // Change in the number of flags placed
+    int outcome = Game.PLAYING; // WON or LOST when this move ended the game
+
+    void clear() {
+        cells = NO_CELLS;
+        count = 0;
+        allCells = false;
+        openedDelta = 0;
+        flagDelta = 0;
+        outcome = Game.PLAYING;
+    }
+
+    boolean isEmpty() {
+        return count == 0 && !allCells && outcome == Game.PLAYING;
+    }
+}
@@ -0,0 +1,59 @@
+package minesweeper;
+
+import java.awt.*;
+import javax.swing.*;
+
+// Glass pane text box with the live metrics, refreshed twice a second while it is shown.
+// It has no mouse listeners, so clicks still go through to the board underneath.
+@SuppressWarnings("serial") // Never serialized
+public class DebugOverlay extends JComponent {
+    static final Color BACKGROUND = new Color(0, 0, 0, 170);
+
+    final Metrics metrics;
+    final Timer refresh = new Timer(500, e -> repaint());
+    BoardModel model;
+    Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    DebugOverlay(Metrics metrics, BoardModel model) {
+        this.metrics = metrics;
+        this.model = model;
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        super.setVisible(visible);
+        if (visible) {
+            refresh.start();
+        } else {
+            refresh.stop();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Runtime runtime = Runtime.getRuntime();
+        String[] lines = {
+                String.format("board      %dx%d, %d mines", model.numRows, model.numCols, model.mineCount),
+                "click>paint " + metrics.clickToPaint.summary(1000, "us"),
+                "move        " + metrics.moveTime.summary(1000, "us"),
+                "cascade     " + metrics.cascadeCells.summary(1, "cells"),
+                "board build " + metrics.boardBuild.summary(1000, "us"),
+                "EDT delay   " + metrics.edtDelay.summary(1000, "us"),
+                String.format("EDT stalls  %d   heap %d / %d MB", metrics.stalls.get(),
+                        (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20),
+        };
+        g.setFont(font);
+        FontMetrics fm = g.getFontMetrics();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, fm.stringWidth(line));
+        }
+        int lineHeight = fm.getHeight();
+        g.setColor(BACKGROUND);
+        g.fillRect(4, 4, width + 12, lineHeight * lines.length + 8);
+        g.setColor(Color.WHITE);
+        for (int k = 0; k < lines.length; k++) {
+            g.drawString(lines[k], 10, 8 + fm.getAscent() + k * lineHeight);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// A board with no edges, split into 64x64 chunks that are built the first time something looks at them.
+// A chunk's mines come from its own seed (world seed + chunk coordinates), so they never have to be stored:
+// when a chunk falls out of the LRU budget only what the player did to it is kept, run-length encoded,
+// and loading it again regenerates the mines and replays that delta. Deltas past a quarter of the memory budget
+// go to a temporary spill file, oldest first, so only a small index entry per touched chunk stays on the heap.
+// Cells are addressed by world coordinates x (column) and y (row), negative ones included.
+public class EndlessBoard {
+    static final int CHUNK_BITS = 6;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+    static final int CHUNK_BYTES = 4 * CHUNK_SIZE * 8 + CHUNK_CELLS + 64; // Rough heap cost of one loaded chunk
+    static final int MIN_CHUNKS = 16;
+    static final int MAX_CASCADE = 1 << 20; // Cells one click may open, the rest of a huge opening carries on with the next click
+    static final long MIN_DELTA_BUDGET = 1 << 20;
+
+    // Cell states as stored in a delta
+    static final int HIDDEN = 0;
+    static final int REVEALED = 1;
+    static final int FLAGGED = 2;
+    static final int QUESTIONED = 3;
+
+    final long seed;
+    final int minesPerChunk;
+    final int maxChunks;
+    final long deltaBudget; // Bytes of deltas kept on the heap before the oldest are spilled
+
+    long revealedCount;
+    int flagCount;
+    boolean lost;
+    int lostX;
+    int lostY;
+
+    // Stats for the status bar
+    long chunksBuilt;
+    long chunksEvicted;
+    long deltaBytes; // On the heap
+    long spilledBytes; // Size of the spill file
+    long spilledLive; // Part of it still indexed, the rest belongs to chunks that were loaded again
+
+    private final LinkedHashMap<Long, Chunk> loaded;
+    private final LinkedHashMap<Long, byte[]> deltas = new LinkedHashMap<>(); // Only for chunks that are not loaded, oldest first
+    private final HashMap<Long, Long> spilled = new HashMap<>(); // Offset << 16 | length in the spill file
+    private FileChannel spill; // Opened by the first spill
+    private boolean spillFailed; // Then deltas just stay on the heap
+    private Chunk last; // Lookups walk along rows, so the previous chunk is usually the right one
+
+    private final int[] shuffle = new int[CHUNK_CELLS];
+    private final long[][] around = new long[9][CHUNK_SIZE]; // Mines of a chunk and its 8 neighbours while counting
+    private byte[] encodeBuffer = new byte[256];
+    private long[] queue = new long[1024];
+    private long[] pending = new long[0]; // Opened cells a capped cascade did not get to expand yet
+    private int pendingCount;
+
+    static class Chunk {
+        final int cx;
+        final int cy;
+        // One word per row, bit c is column c
+        final long[] mines = new long[CHUNK_SIZE];
+        final long[] revealed = new long[CHUNK_SIZE];
+        final long[] flagged = new long[CHUNK_SIZE];
+        final long[] questioned = new long[CHUNK_SIZE];
+        final byte[] adjacent = new byte[CHUNK_CELLS];
+
+        Chunk(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        int state(int lx, int ly) {
+            long bit = 1L << lx;
+            if ((revealed[ly] & bit) != 0) {
+                return REVEALED;
+            }
+            if ((flagged[ly] & bit) != 0) {
+                return FLAGGED;
+            }
+            return (questioned[ly] & bit) != 0 ? QUESTIONED : HIDDEN;
+        }
+
+        void setState(int lx, int ly, int state) {
+            long bit = 1L << lx;
+            revealed[ly] = state == REVEALED ? revealed[ly] | bit : revealed[ly] & ~bit;
+            flagged[ly] = state == FLAGGED ? flagged[ly] | bit : flagged[ly] & ~bit;
+            questioned[ly] = state == QUESTIONED ? questioned[ly] | bit : questioned[ly] & ~bit;
+        }
+
+        boolean untouched() {
+            for (int row = 0; row < CHUNK_SIZE; row++) {
+                if ((revealed[row] | flagged[row] | questioned[row]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // density is the share of mines in every chunk, memoryBudget the bytes loaded chunks may use
+    EndlessBoard(long seed, double density, long memoryBudget) {
+        this.seed = seed;
+        this.minesPerChunk = (int) Math.round(Math.max(0.05, Math.min(0.9, density)) * CHUNK_CELLS);
+        this.maxChunks = (int) Math.max(MIN_CHUNKS, memoryBudget / CHUNK_BYTES);
+        this.deltaBudget = Math.max(MIN_DELTA_BUDGET, memoryBudget / 4);
+        this.loaded = new LinkedHashMap<>(maxChunks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() <= maxChunks) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    int loadedChunks() {
+        return loaded.size();
+    }
+
+    int storedDeltas() {
+        return deltas.size() + spilled.size();
+    }
+
+    // True while part of a capped opening is still waiting to be expanded
+    boolean openingPending() {
+        return pendingCount > 0;
+    }
+
+    // Deletes the spill file, the board can't restore spilled chunks afterwards
+    void close() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        spill = null;
+    }
+
+    static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    // The chunk holding world cell (x, y), built or restored if it isn't loaded
+    Chunk chunkAt(int x, int y) {
+        int cx = x >> CHUNK_BITS;
+        int cy = y >> CHUNK_BITS;
+        Chunk chunk = last;
+        if (chunk != null && chunk.cx == cx && chunk.cy == cy) {
+            return chunk;
+        }
+        long key = key(cx, cy);
+        chunk = loaded.get(key);
+        if (chunk == null) {
+            chunk = build(cx, cy);
+            byte[] delta = deltas.remove(key);
+            if (delta != null) {
+                deltaBytes -= delta.length;
+            } else {
+                delta = readSpilled(key);
+            }
+            if (delta != null) {
+                decode(delta, chunk);
+            }
+            loaded.put(key, chunk); // May evict the least recently used chunk
+        }
+        last = chunk;
+        return chunk;
+    }
+
+    boolean isMine(int x, int y) {
+        return (chunkAt(x, y).mines[y & CHUNK_MASK] & (1L << x)) != 0;
+    }
+
+    int adjacentMines(int x, int y) {
+        return chunkAt(x, y).adjacent[((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK)];
+    }
+
+    int state(int x, int y) {
+        return chunkAt(x, y).state(x & CHUNK_MASK, y & CHUNK_MASK);
+    }
+
+    // Left click: a mine ends the run, anything else opens the cell and the empty area around it,
+    // across as many chunks as it reaches. An opening bigger than MAX_CASCADE stops there with its frontier kept,
+    // and the next click, on any cell, carries on expanding it first. Returns the number of cells opened.
+    int reveal(int x, int y) {
+        if (lost) {
+            return 0;
+        }
+        Chunk chunk = chunkAt(x, y);
+        int lx = x & CHUNK_MASK;
+        int ly = y & CHUNK_MASK;
+        int state = chunk.state(lx, ly);
+        boolean opens = state != REVEALED && state != QUESTIONED;
+        if (opens && (chunk.mines[ly] & (1L << lx)) != 0) {
+            lost = true;
+            lostX = x;
+            lostY = y;
+            return 0;
+        }
+
+        // Breadth first over packed (x, y) pairs, a cell is opened when it is queued so nothing is queued twice
+        int tail = 0;
+        if (pendingCount > 0) {
+            ensureQueue(pendingCount + 1);
+            System.arraycopy(pending, 0, queue, 0, pendingCount);
+            tail = pendingCount;
+            pendingCount = 0;
+        }
+        int opened = 0;
+        if (opens) {
+            open(chunk, lx, ly);
+            queue[tail++] = pack(x, y);
+            opened++;
+        }
+        for (int head = 0; head < tail; head++) {
+            if (opened >= MAX_CASCADE) {
+                keepPending(head, tail);
+                break;
+            }
+            int qx = (int) (queue[head] >> 32);
+            int qy = (int) queue[head];
+            if (adjacentMines(qx, qy) != 0) {
+                continue; // Numbers stop the cascade
+            }
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = qx + dx;
+                    int ny = qy + dy;
+                    Chunk next = chunkAt(nx, ny);
+                    if (next.state(nx & CHUNK_MASK, ny & CHUNK_MASK) != REVEALED) {
+                        open(next, nx & CHUNK_MASK, ny & CHUNK_MASK);
+                        ensureQueue(tail + 1);
+                        queue[tail++] = pack(nx, ny);
+                        opened++;
+                    }
+                }
+            }
+        }
+        return opened;
+    }
+
+    private void ensureQueue(int size) {
+        if (size > queue.length) {
+            queue = Arrays.copyOf(queue, Math.max(size, queue.length * 2));
+        }
+    }
+
+    private void keepPending(int head, int tail) {
+        pendingCount = tail - head;
+        if (pending.length < pendingCount) {
+            pending = new long[pendingCount];
+        }
+        System.arraycopy(queue, head, pending, 0, pendingCount);
+    }
+
+    // Flags on opened cells are taken back, like in the normal game
+    private void open(Chunk chunk, int lx, int ly) {
+        if (chunk.state(lx, ly) == FLAGGED) {
+            flagCount--;
+        }
+        chunk.setState(lx, ly, REVEALED);
+        revealedCount++;
+    }
+
+    // Right click: hidden -> flag -> question mark -> hidden. There is no flag limit on an endless board.
+    boolean cycleMark(int x, int y) {
+        if (lost) {
+            return false;
+        }
+        Chunk chunk = chunkAt(x, y);
+        int lx = x & CHUNK_MASK;
+        int ly = y & CHUNK_MASK;
+        switch (chunk.state(lx, ly)) {
+            case HIDDEN:
+                chunk.setState(lx, ly, FLAGGED);
+                flagCount++;
+                return true;
+            case FLAGGED:
+                chunk.setState(lx, ly, QUESTIONED);
+                flagCount--;
+                return true;
+            case QUESTIONED:
+                chunk.setState(lx, ly, HIDDEN);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private long chunkSeed(int cx, int cy) {
+        return new SplittableRandom(seed + cx * 0x9E3779B97F4A7C15L + cy * 0xC2B2AE3D27D4EB4FL).nextLong();
+    }
+
+    // Same partial Fisher-Yates as MinePlacer, on one chunk. The 3x3 around (0, 0) is where every run starts,
+    // so it never holds a mine.
+    private void generateMines(int cx, int cy, long[] rows) {
+        Arrays.fill(rows, 0L);
+        for (int k = 0; k < CHUNK_CELLS; k++) {
+            shuffle[k] = k;
+        }
+        SplittableRandom random = new SplittableRandom(chunkSeed(cx, cy));
+        for (int k = 0; k < minesPerChunk; k++) {
+            int j = k + random.nextInt(CHUNK_CELLS - k);
+            int picked = shuffle[j];
+            shuffle[j] = shuffle[k];
+            shuffle[k] = picked;
+            rows[picked >>> CHUNK_BITS] |= 1L << picked;
+        }
+        for (int y = -1; y <= 1; y++) {
+            for (int x = -1; x <= 1; x++) {
+                if (x >> CHUNK_BITS == cx && y >> CHUNK_BITS == cy) {
+                    rows[y & CHUNK_MASK] &= ~(1L << x);
+                }
+            }
+        }
+    }
+
+    // Mines plus neighbour counts, the border cells count mines in the 8 chunks around this one
+    private Chunk build(int cx, int cy) {
+        Chunk chunk = new Chunk(cx, cy);
+        for (int k = 0; k < 9; k++) {
+            int nx = cx + k % 3 - 1;
+            int ny = cy + k / 3 - 1;
+            Chunk neighbour = loaded.get(key(nx, ny));
+            if (neighbour != null) {
+                System.arraycopy(neighbour.mines, 0, around[k], 0, CHUNK_SIZE);
+            } else {
+                generateMines(nx, ny, around[k]);
+            }
+        }
+        System.arraycopy(around[4], 0, chunk.mines, 0, CHUNK_SIZE);
+
+        for (int ly = 0; ly < CHUNK_SIZE; ly++) {
+            for (int lx = 0; lx < CHUNK_SIZE; lx++) {
+                int count = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if ((dx != 0 || dy != 0) && mineAround(lx + dx, ly + dy)) {
+                            count++;
+                        }
+                    }
+                }
+                chunk.adjacent[(ly << CHUNK_BITS) | lx] = (byte) count;
+            }
+        }
+        chunksBuilt++;
+        return chunk;
+    }
+
+    // lx and ly run from -1 to 64, outside 0..63 they land in a neighbour chunk
+    private boolean mineAround(int lx, int ly) {
+        int k = ((ly >> CHUNK_BITS) + 1) * 3 + (lx >> CHUNK_BITS) + 1;
+        return (around[k][ly & CHUNK_MASK] & (1L << lx)) != 0;
+    }
+
+    // A chunk leaving memory keeps only its delta, and nothing at all if the player never touched it
+    private void evict(Chunk chunk) {
+        if (last == chunk) {
+            last = null;
+        }
+        chunksEvicted++;
+        if (chunk.untouched()) {
+            return;
+        }
+        byte[] delta = encode(chunk);
+        deltas.put(key(chunk.cx, chunk.cy), delta);
+        deltaBytes += delta.length;
+        while (deltaBytes > deltaBudget && !spillFailed) {
+            spillOldest();
+        }
+    }
+
+    // Appends the oldest heap delta to the spill file. Any I/O trouble and deltas stay on the heap from then on.
+    private void spillOldest() {
+        Map.Entry<Long, byte[]> oldest = deltas.entrySet().iterator().next();
+        byte[] delta = oldest.getValue();
+        try {
+            if (spill == null) {
+                Path path = Files.createTempFile("minesweeper-endless", ".spill");
+                spill = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                path.toFile().deleteOnExit();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(delta);
+            long offset = spilledBytes;
+            while (buffer.hasRemaining()) {
+                spill.write(buffer, offset + buffer.position());
+            }
+            spilled.put(oldest.getKey(), offset << 16 | delta.length);
+            spilledBytes += delta.length;
+            spilledLive += delta.length;
+        } catch (IOException e) {
+            e.printStackTrace();
+            spillFailed = true;
+            return;
+        }
+        deltas.remove(oldest.getKey());
+        deltaBytes -= delta.length;
+        if (spilledBytes > 2 * Math.max(spilledLive, deltaBudget)) {
+            try {
+                compactSpill();
+            } catch (IOException e) {
+                e.printStackTrace(); // The old file is still whole, it just keeps its dead space
+            }
+        }
+    }
+
+    // Chunks wandering in and out of memory leave dead deltas behind in the file. Once they are more than half
+    // of it the live ones are copied to a new file, so the file stays within twice what is indexed.
+    private void compactSpill() throws IOException {
+        Path path = Files.createTempFile("minesweeper-endless", ".spill");
+        FileChannel compacted = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        path.toFile().deleteOnExit();
+        HashMap<Long, Long> moved = new HashMap<>(spilled.size() * 2);
+        long size = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        try {
+            for (Map.Entry<Long, Long> entry : spilled.entrySet()) {
+                long at = entry.getValue();
+                int length = (int) (at & 0xFFFF);
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining()) {
+                    if (spill.read(buffer, (at >>> 16) + buffer.position()) < 0) {
+                        throw new IOException("Spill file cut short");
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    compacted.write(buffer, size + buffer.position());
+                }
+                moved.put(entry.getKey(), size << 16 | length);
+                size += length;
+            }
+        } catch (IOException e) {
+            compacted.close();
+            throw e;
+        }
+        spilled.putAll(moved);
+        spill.close();
+        spill = compacted;
+        spilledBytes = size;
+        spilledLive = size;
+    }
+
+    // null when the chunk was never spilled, or the spill file can't be read and the chunk starts over untouched
+    private byte[] readSpilled(long key) {
+        Long at = spilled.remove(key);
+        if (at == null || spill == null) {
+            return null;
+        }
+        spilledLive -= at & 0xFFFF;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (at & 0xFFFF));
+        try {
+            while (buffer.hasRemaining()) {
+                if (spill.read(buffer, (at >>> 16) + buffer.position()) < 0) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return buffer.array();
+    }
+
+    // Row-major runs of equal state, each written as a varint of (length << 2 | state)
+    private byte[] encode(Chunk chunk) {
+        int size = 0;
+        int runState = chunk.state(0, 0);
+        int runLength = 0;
+        for (int i = 0; i <= CHUNK_CELLS; i++) {
+            int state = i < CHUNK_CELLS ? chunk.state(i & CHUNK_MASK, i >>> CHUNK_BITS) : -1;
+            if (state == runState) {
+                runLength++;
+                continue;
+            }
+            if (encodeBuffer.length - size < 5) {
+                encodeBuffer = Arrays.copyOf(encodeBuffer, encodeBuffer.length * 2);
+            }
+            int value = runLength << 2 | runState;
+            while ((value & ~0x7F) != 0) {
+                encodeBuffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            encodeBuffer[size++] = (byte) value;
+            runState = state;
+            runLength = 1;
+        }
+        return Arrays.copyOf(encodeBuffer, size);
+    }
+
+    private static void decode(byte[] delta, Chunk chunk) {
+        int i = 0;
+        int pos = 0;
+        while (pos < delta.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = delta[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int state = value & 3;
+            int end = i + (value >>> 2);
+            if (state != HIDDEN) {
+                for (; i < end; i++) {
+                    chunk.setState(i & CHUNK_MASK, i >>> CHUNK_BITS, state);
+                }
+            }
+            i = end;
+        }
+    }
+}
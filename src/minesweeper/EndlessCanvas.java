@@ -0,0 +1,224 @@
+package minesweeper;
+
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+// Paints the part of an EndlessBoard under a movable camera.
+// There is no scroll pane since the board has no size: dragging, the wheel and the arrow keys move the camera,
+// and only the cells on screen are ever asked for, so only their chunks get loaded.
+// Cell coordinates are ints, so the camera stops at the edges of that range, about 2^31 cells out each way.
+@SuppressWarnings("serial") // Never serialized
+public class EndlessCanvas extends JComponent {
+    static final int MIN_TILE_SIZE = 16;
+    static final int MAX_TILE_SIZE = 64;
+    static final int DRAG_THRESHOLD = 5; // Pixels the mouse may move before a click becomes a drag
+
+    // Called with the world cell under the mouse
+    interface CellListener {
+        void cellPressed(int x, int y, int button);
+        void cellReleased(int x, int y, int button);
+    }
+
+    EndlessBoard board;
+    CellListener listener;
+    int tileSize;
+    boolean showMines = false;
+
+    // World pixel at the top left corner of the component, long since the int cell range is far wider in pixels
+    long viewX;
+    long viewY;
+
+    private SpriteAtlas atlas;
+    private Point pressPoint;
+    private boolean dragging;
+    private int pressedX;
+    private int pressedY;
+
+    EndlessCanvas(EndlessBoard board, int tileSize) {
+        this.board = board;
+        setOpaque(true);
+        setFocusable(true);
+        setTileSize(tileSize);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                pressPoint = e.getPoint();
+                dragging = false;
+                pressedX = cellX(e.getX());
+                pressedY = cellY(e.getY());
+                if (listener != null && e.getButton() != MouseEvent.BUTTON2) {
+                    listener.cellPressed(pressedX, pressedY, e.getButton());
+                }
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (pressPoint == null) {
+                    return;
+                }
+                int dx = e.getX() - pressPoint.x;
+                int dy = e.getY() - pressPoint.y;
+                if (!dragging && Math.abs(dx) + Math.abs(dy) < DRAG_THRESHOLD) {
+                    return;
+                }
+                dragging = true;
+                pan(-dx, -dy);
+                pressPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                // A drag moves the camera, it never opens or marks a cell
+                if (listener != null && e.getButton() != MouseEvent.BUTTON2) {
+                    listener.cellReleased(pressedX, pressedY, dragging ? MouseEvent.NOBUTTON : e.getButton());
+                }
+                pressPoint = null;
+                dragging = false;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                int step = e.getWheelRotation() * tileSize * 3;
+                if (e.isControlDown()) {
+                    zoom(e.getWheelRotation() < 0 ? 1 : -1, e.getPoint());
+                } else if (e.isShiftDown()) {
+                    pan(step, 0);
+                } else {
+                    pan(0, step);
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int step = tileSize * 4;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_LEFT:
+                        pan(-step, 0);
+                        break;
+                    case KeyEvent.VK_RIGHT:
+                        pan(step, 0);
+                        break;
+                    case KeyEvent.VK_UP:
+                        pan(0, -step);
+                        break;
+                    case KeyEvent.VK_DOWN:
+                        pan(0, step);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+    }
+
+    void setTileSize(int size) {
+        tileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, size));
+        atlas = SpriteAtlas.forTileSize(tileSize, Math.max(1, tileSize / 2));
+        if (!atlas.complete) {
+            SpriteAtlas.whenImagesLoaded(() -> setTileSize(tileSize));
+        }
+        repaint();
+    }
+
+    // A new board starts with the camera on (0, 0), the safe start cell
+    void setBoard(EndlessBoard board) {
+        this.board = board;
+        showMines = false;
+        centreOn(0, 0);
+    }
+
+    void centreOn(int x, int y) {
+        viewX = (long) x * tileSize + tileSize / 2 - getWidth() / 2;
+        viewY = (long) y * tileSize + tileSize / 2 - getHeight() / 2;
+        clampView();
+        repaint();
+    }
+
+    void pan(int dx, int dy) {
+        viewX += dx;
+        viewY += dy;
+        clampView();
+        repaint();
+    }
+
+    // Keeps every cell on screen inside the int range, past it cellX and cellY would wrap around.
+    // The last cell on screen stops one short of Integer.MAX_VALUE, so the paint loops' x++ and y++ can't overflow.
+    private void clampView() {
+        viewX = clamp(viewX, getWidth());
+        viewY = clamp(viewY, getHeight());
+    }
+
+    private long clamp(long view, int extent) {
+        long min = (long) Integer.MIN_VALUE * tileSize;
+        long max = (long) Integer.MAX_VALUE * tileSize - Math.max(extent, 1);
+        return Math.max(min, Math.min(max, view));
+    }
+
+    // Zooms one step in or out, keeping the cell under the mouse in place
+    void zoom(int direction, Point anchor) {
+        int oldSize = tileSize;
+        setTileSize(tileSize + direction * Math.max(1, tileSize / 8));
+        if (tileSize == oldSize) {
+            return;
+        }
+        viewX = (viewX + anchor.x) * tileSize / oldSize - anchor.x;
+        viewY = (viewY + anchor.y) * tileSize / oldSize - anchor.y;
+        clampView();
+        repaint();
+    }
+
+    int cellX(int px) {
+        return (int) Math.floorDiv(viewX + px, tileSize);
+    }
+
+    int cellY(int py) {
+        return (int) Math.floorDiv(viewY + py, tileSize);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(800, 800);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int x0 = cellX(clip.x);
+        int y0 = cellY(clip.y);
+        int x1 = cellX(clip.x + clip.width - 1);
+        int y1 = cellY(clip.y + clip.height - 1);
+
+        for (int y = y0; y <= y1; y++) {
+            int py = (int) ((long) y * tileSize - viewY);
+            for (int x = x0; x <= x1; x++) {
+                int px = (int) ((long) x * tileSize - viewX);
+                atlas.draw(g, spriteAt(x, y), px, py);
+            }
+        }
+    }
+
+    int spriteAt(int x, int y) {
+        int state = board.state(x, y);
+        if (state == EndlessBoard.REVEALED) {
+            return SpriteAtlas.OPEN + board.adjacentMines(x, y);
+        }
+        if (showMines && board.isMine(x, y)) {
+            return state == EndlessBoard.FLAGGED ? SpriteAtlas.FLAGGED_MINE : SpriteAtlas.MINE;
+        }
+        if (state == EndlessBoard.FLAGGED) {
+            return SpriteAtlas.FLAG;
+        }
+        return state == EndlessBoard.QUESTIONED ? SpriteAtlas.QUESTION : SpriteAtlas.HIDDEN;
+    }
+}
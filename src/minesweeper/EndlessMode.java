@@ -0,0 +1,108 @@
+package minesweeper;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.util.SplittableRandom;
+import javax.swing.*;
+
+// Window for the endless board: a camera over an EndlessBoard plus a status line.
+// The run ends on the first mine, the score is how many cells were opened.
+public class EndlessMode {
+    static final double DENSITY = 0.17; // About the same as expert
+    static final long MEMORY_BUDGET = 16L << 20; // Bytes of loaded chunks, roughly 2600 of them
+
+    JFrame frame = new JFrame("Minesweeper - Endless");
+    JLabel openedLabel = new JLabel("Opened: 0");
+    JButton resetButton = new JButton();
+    JLabel statusLabel = new JLabel();
+    SplittableRandom seeds = new SplittableRandom();
+
+    EndlessBoard board = new EndlessBoard(seeds.nextLong(), DENSITY, MEMORY_BUDGET);
+    EndlessCanvas canvas = new EndlessCanvas(board, 24);
+
+    EndlessMode() {
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                board.close(); // Deletes the spill file
+            }
+        });
+        frame.setLayout(new BorderLayout());
+
+        openedLabel.setFont(new Font("Arial", Font.BOLD, 25));
+        resetButton.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 25));
+        resetButton.setText("😊");
+        resetButton.setFocusable(false);
+        resetButton.addActionListener(e -> newRun());
+
+        JPanel textPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(0, 10, 0, 10);
+        textPanel.add(openedLabel, gbc);
+        textPanel.add(resetButton, gbc);
+        frame.add(textPanel, BorderLayout.NORTH);
+
+        canvas.listener = new EndlessCanvas.CellListener() {
+            @Override
+            public void cellPressed(int x, int y, int button) {
+                if (!board.lost && button == MouseEvent.BUTTON1) {
+                    resetButton.setText("😨");
+                }
+            }
+
+            @Override
+            public void cellReleased(int x, int y, int button) {
+                tileReleased(x, y, button);
+            }
+        };
+        frame.add(canvas);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        frame.add(statusLabel, BorderLayout.SOUTH);
+        updateStatus();
+
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+        canvas.centreOn(0, 0);
+        canvas.requestFocusInWindow();
+    }
+
+    void newRun() {
+        board.close();
+        board = new EndlessBoard(seeds.nextLong(), DENSITY, MEMORY_BUDGET);
+        canvas.setBoard(board);
+        resetButton.setText("😊");
+        openedLabel.setText("Opened: 0");
+        updateStatus();
+    }
+
+    private void tileReleased(int x, int y, int button) {
+        if (board.lost) {
+            return;
+        }
+        resetButton.setText("😊");
+        if (button == MouseEvent.BUTTON1) {
+            if (board.reveal(x, y) > 0) {
+                openedLabel.setText("Opened: " + board.revealedCount);
+            } else if (board.lost) {
+                canvas.showMines = true;
+                resetButton.setText("😢");
+                openedLabel.setText("Boom! Opened: " + board.revealedCount);
+            }
+            canvas.repaint();
+        } else if (button == MouseEvent.BUTTON3 && board.cycleMark(x, y)) {
+            canvas.repaint();
+        }
+        updateStatus();
+    }
+
+    // Memory stays flat: loaded chunks are capped, everything else is a few bytes of delta per visited chunk,
+    // and the oldest deltas move to disk once they pass their budget
+    private void updateStatus() {
+        statusLabel.setText(String.format("Chunks loaded: %d / %d   Stored deltas: %d (%.1f KB, %.1f KB on disk)   Flags: %d%s",
+                board.loadedChunks(), board.maxChunks, board.storedDeltas(), board.deltaBytes / 1024.0,
+                board.spilledBytes / 1024.0, board.flagCount, board.openingPending() ? "   Click again to keep opening" : ""));
+    }
+}
@@ -0,0 +1,263 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+// The rules of one game with no Swing in it: mine placement, reveals, the flag / question mark cycle,
+// and win or loss. Every move returns a ChangeSet so the view can update once per move,
+// however many tiles a cascade opened.
+public class Game {
+    static final int PLAYING = 0;
+    static final int WON = 1;
+    static final int LOST = 2;
+
+    // Moves, as recorded in the MoveLog
+    static final int REVEAL = 0;
+    static final int MARK = 1;
+
+    final BoardModel model;
+    final RevealEngine revealEngine;
+    final ChangeSet changes = new ChangeSet();
+    final MinePlacer minePlacer;
+    final MoveLog log = new MoveLog();
+    BoardScorer scorer = new BoardScorer(); // Games on one thread can share one, like the reveal engine
+    boolean recording = true; // Off while a log is being replayed into this game
+    History history; // Undo and redo, null unless keepHistory() was called
+    boolean undoUsed; // Set once a move was taken back, such a game is practice and not a result
+    private final int[] markedCell = new int[1];
+    SplittableRandom seeds = new SplittableRandom(); // Only used to pick the next game's seed
+
+    long seed; // With the first click this reproduces the board exactly
+    int firstClick = -1; // Mines are placed on the first reveal, -1 until then
+
+    int numRows;
+    int numCols;
+    int minecount; // Number of mines
+    int flagCount = 0; // Count of flags placed
+    int tilesClicked = 0; //goal is to click all tiles without mines
+    int state = PLAYING;
+
+    // How hard the board is, set by score() once the mines are placed (see BoardScorer)
+    int threeBV;
+    int openings;
+    int islands;
+    boolean scored;
+
+    Game(int rows, int cols, int mines) {
+        this(rows, cols, mines, null, new MinePlacer(), new HeapCellStore());
+    }
+
+    // Many games driven from one thread can share the reveal queue and the placement buffer,
+    // which are the only per-game allocations that grow with the board. Pass null for an engine of its own.
+    // The board's bits go in store, which can come from an OffHeapArena.
+    Game(int rows, int cols, int mines, RevealEngine sharedEngine, MinePlacer sharedPlacer, CellStore store) {
+        numRows = rows;
+        numCols = cols;
+        minecount = mines;
+        model = new BoardModel(rows, cols, store);
+        revealEngine = sharedEngine != null ? sharedEngine : new RevealEngine(model);
+        minePlacer = sharedPlacer;
+        reset();
+    }
+
+    void setDifficulty(int rows, int cols, int mines) {
+        numRows = rows;
+        numCols = cols;
+        minecount = mines;
+        model.resize(rows, cols);
+        reset();
+    }
+
+    void reset() {
+        reset(seeds.nextLong());
+    }
+
+    // Starts over with an empty board, mines wait for the first click
+    void reset(long seed) {
+        this.seed = seed;
+        firstClick = -1;
+        tilesClicked = 0;
+        flagCount = 0;
+        state = PLAYING;
+        threeBV = openings = islands = 0;
+        scored = false;
+        undoUsed = false;
+        model.clear();
+        log.start(numRows, numCols, minecount, seed);
+        if (history != null) {
+            history.reset(this);
+        }
+    }
+
+    // Keeps every version of the board from here on, for undo and redo
+    void keepHistory() {
+        history = new History();
+        history.reset(this);
+    }
+
+    // Done with this game for good, an off-heap board goes back to its arena
+    void release() {
+        model.release();
+    }
+
+    boolean minesPlaced() {
+        return firstClick >= 0;
+    }
+
+    // The first clicked cell and its neighbours never hold a mine
+    void setMines(int safeCell) {
+        firstClick = safeCell;
+        minePlacer.place(model, minecount, seed, safeCell);
+    }
+
+    // 3BV, openings and islands of the placed mines. A full pass over the board, so it is left to the callers
+    // that show or record the numbers rather than done on every placement.
+    void score() {
+        scored = true;
+        scorer.score(model);
+        threeBV = scorer.threeBV();
+        openings = scorer.openings;
+        islands = scorer.islands;
+    }
+
+    // 3BV per second for a game that took millis
+    double threeBVPerSecond(long millis) {
+        return millis > 0 ? threeBV * 1000.0 / millis : 0;
+    }
+
+    boolean isOver() {
+        return state != PLAYING;
+    }
+
+    // Every player move comes through here so it lands in the move log.
+    // A move after an undo replaces the moves that were undone, in the log and in the history,
+    // unless it changed nothing: then it isn't logged and redo still has them.
+    ChangeSet apply(int action, int cell) {
+        long nanos = System.nanoTime();
+        boolean record = recording && state == PLAYING;
+        int keepMoves = history != null ? history.redoMovesDropped() : -1;
+        ChangeSet result = action == REVEAL ? reveal(cell) : cycleMark(cell);
+        if (keepMoves >= 0) {
+            if (result.isEmpty()) {
+                return result;
+            }
+            log.truncate(keepMoves);
+        }
+        if (record) {
+            log.record(action, cell, nanos);
+        }
+        if (history != null && !result.isEmpty()) {
+            history.commit(this, result);
+        }
+        return result;
+    }
+
+    boolean canUndo() {
+        return history != null && history.canUndo();
+    }
+
+    boolean canRedo() {
+        return history != null && history.canRedo();
+    }
+
+    // Takes back the last move, a losing click included. The ChangeSet lists the cells that changed,
+    // its outcome stays PLAYING as no move was played.
+    ChangeSet undo() {
+        undoUsed = true;
+        return goTo(history.at - 1);
+    }
+
+    ChangeSet redo() {
+        return goTo(history.at + 1);
+    }
+
+    // Any version since the first click, 0 being the board right after it
+    ChangeSet goTo(int version) {
+        changes.clear();
+        history.goTo(this, version, changes);
+        return changes;
+    }
+
+    // Left click: a mine loses the game, anything else opens the cell and its cascade
+    ChangeSet reveal(int i) {
+        changes.clear();
+        if (state != PLAYING || model.isRevealed(i) || model.isQuestioned(i)) {
+            return changes;
+        }
+        if (!minesPlaced()) {
+            setMines(i);
+        }
+        if (model.isMine(i)) {
+            state = LOST;
+            changes.outcome = LOST;
+            changes.allCells = true;
+            return changes;
+        }
+        checkMine(i);
+        return changes;
+    }
+
+    // Opens a safe cell and the empty area around it
+    void checkMine(int i) {
+        RevealEngine.RevealResult opened = revealEngine.reveal(model, i);
+        if (opened.count == 0) {
+            return; // Tile already checked
+        }
+        changes.cells = opened.cells;
+        changes.count = opened.count;
+        changes.openedDelta += opened.count;
+        tilesClicked += opened.count;
+
+        // Flags on cleared tiles are removed, so give them back to the mine count
+        if (opened.flagsCleared > 0) {
+            int before = flagCount;
+            flagCount = Math.max(0, flagCount - opened.flagsCleared);
+            changes.flagDelta += flagCount - before;
+        }
+
+        if (tilesClicked == model.cellCount - model.mineCount) {
+            state = WON;
+            changes.outcome = WON;
+        }
+    }
+
+    // Right click: hidden -> flag -> question mark -> hidden
+    ChangeSet cycleMark(int i) {
+        changes.clear();
+        if (state != PLAYING || model.isRevealed(i)) {
+            return changes; // Nothing to mark on an opened tile
+        }
+        int before = flagCount;
+        if (!model.isFlagged(i) && !model.isQuestioned(i)) {
+            if (flagCount >= minecount) {
+                return changes; // No flags left
+            }
+            model.setFlagged(i, true);
+            flagCount++;
+        } else if (model.isFlagged(i)) {
+            model.setFlagged(i, false); // Remove flag
+            model.setQuestioned(i, true);
+            flagCount--;
+        } else {
+            model.setQuestioned(i, false); // Remove question mark
+        }
+        markedCell[0] = i;
+        changes.cells = markedCell;
+        changes.count = 1;
+        changes.flagDelta = flagCount - before;
+        return changes;
+    }
+
+    int countMine(int r, int c) {
+        return model.isMine(r, c) ? 1 : 0;
+    }
+
+    int minesLeft() {
+        return minecount - flagCount;
+    }
+
+    int percentCleared() {
+        int safeTiles = model.cellCount - model.mineCount;
+        int percent = (int) Math.round((tilesClicked * 100.0) / safeTiles);
+        return Math.min(percent, 100); // Clamp to 100%
+    }
+}
@@ -0,0 +1,314 @@
+package minesweeper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hosts many games at once for bots and tournaments, over local TCP or a Unix domain socket.
+// Every connection gets its own thread, virtual when the JVM has them, and owns the sessions it creates,
+// so a session is only ever touched by one thread and all sessions of a connection share one reveal queue
+// and one placement buffer. What is left per session is the Game's bitsets and counters.
+// With --off-heap the bitsets of every session live in one OffHeapArena, at a byte per cell.
+//
+//   java minesweeper.App --server [--port 7878 | --unix /tmp/minesweeper.sock] [--off-heap]
+//
+// Line protocol, one request and one reply per line, cells are indexes r * cols + c:
+//   NEW rows cols mines [seed]  -> OK id
+//   R id cell                   -> OK state opened cell:number ...   (reveal, state 0 playing 1 won 2 lost)
+//   M id cell                   -> OK state flagsLeft               (flag / question mark / clear cycle)
+//   VIEW id                     -> OK row-major string: 0-8 open, # hidden, F flag, ? question, * mine once lost
+//   CLOSE id                    -> OK
+//   STATS                       -> OK sessions=... connections=... moves=...
+//   QUIT
+// Anything wrong gets ERR and a message, the connection stays open.
+public class GameServer {
+    static final int DEFAULT_PORT = 7878;
+    static final int MAX_CELLS = 1 << 20; // Per session, keeps one client from taking the whole heap
+    static final String[] STATES = {"0", "1", "2"};
+
+    final AtomicInteger sessions = new AtomicInteger();
+    final AtomicInteger connections = new AtomicInteger();
+    final AtomicLong moves = new AtomicLong();
+    final AtomicLong sessionsCreated = new AtomicLong();
+    final OffHeapArena arena; // null keeps the boards on the heap
+
+    GameServer(OffHeapArena arena) {
+        this.arena = arena;
+    }
+
+    // One thread per task, virtual threads on a JVM that has them (21+), a cached pool of platform threads otherwise.
+    // The build targets 17, so on the JVM it targets this is always the platform pool (see README).
+    // The method is looked up by reflection so the code still builds for 17, and 19/20 have it but throw without --enable-preview.
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("No virtual threads (" + cause + "), falling back to a cached pool of platform threads");
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // What newThreadPerTaskExecutor handed out, for the startup line
+    static String describe(ExecutorService executor) {
+        return executor instanceof ThreadPoolExecutor ? "a cached pool of platform threads" : "virtual threads";
+    }
+
+    void serve(ServerSocketChannel server) throws IOException {
+        ExecutorService executor = newThreadPerTaskExecutor();
+        System.out.println("Connections run on " + describe(executor));
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                executor.execute(() -> handle(channel));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Scratch shared by every session of one connection. The engine, placer and scorer keep their queues and arrays
+    // between calls and are not thread safe: only the connection's own thread may use them, one request at a time.
+    // Anything that hands a session's work to another thread has to make its own.
+    static class Connection {
+        final HashMap<Integer, Game> games = new HashMap<>();
+        final RevealEngine engine = new RevealEngine(null);
+        final MinePlacer placer = new MinePlacer();
+        final BoardScorer scorer = new BoardScorer();
+        final StringBuilder reply = new StringBuilder();
+        int nextId = 1;
+    }
+
+    void handle(SocketChannel channel) {
+        connections.incrementAndGet();
+        Connection connection = new Connection();
+        try (channel;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                StringBuilder reply = connection.reply;
+                reply.setLength(0);
+                if (line.equals("QUIT")) {
+                    break;
+                }
+                try {
+                    execute(connection, line, reply);
+                } catch (RuntimeException e) {
+                    reply.setLength(0);
+                    reply.append("ERR ").append(e.getMessage());
+                }
+                reply.append('\n');
+                out.append(reply);
+                // Pipelined requests are answered in one write
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away, its sessions go with it
+        } finally {
+            for (Game game : connection.games.values()) {
+                game.release();
+            }
+            sessions.addAndGet(-connection.games.size());
+            connections.decrementAndGet();
+        }
+    }
+
+    void execute(Connection connection, String line, StringBuilder reply) {
+        String[] words = line.trim().split(" +");
+        switch (words[0]) {
+            case "NEW": {
+                arguments(words, 3, 4);
+                int rows = number(words[1]);
+                int cols = number(words[2]);
+                int mines = number(words[3]);
+                if (rows <= 0 || cols <= 0 || (long) rows * cols > MAX_CELLS || mines < 1 || mines >= rows * cols) {
+                    throw new IllegalArgumentException("bad board " + rows + "x" + cols + " with " + mines + " mines");
+                }
+                CellStore store = arena != null ? arena.newStore() : new HeapCellStore();
+                Game game = new Game(rows, cols, mines, connection.engine, connection.placer, store);
+                game.recording = false;
+                game.scorer = connection.scorer;
+                if (words.length > 4) {
+                    game.reset(longNumber(words[4]));
+                }
+                int id = connection.nextId++;
+                connection.games.put(id, game);
+                sessions.incrementAndGet();
+                sessionsCreated.incrementAndGet();
+                reply.append("OK ").append(id);
+                break;
+            }
+            case "R": {
+                arguments(words, 2, 2);
+                Game game = session(connection, words[1]);
+                int cell = cell(game, words[2]);
+                ChangeSet changes = game.apply(Game.REVEAL, cell);
+                moves.incrementAndGet();
+                reply.append("OK ").append(STATES[game.state]).append(' ').append(changes.count);
+                for (int k = 0; k < changes.count; k++) {
+                    int i = changes.cells[k];
+                    reply.append(' ').append(i).append(':').append(game.model.adjacentMines(i));
+                }
+                break;
+            }
+            case "M": {
+                arguments(words, 2, 2);
+                Game game = session(connection, words[1]);
+                game.apply(Game.MARK, cell(game, words[2]));
+                moves.incrementAndGet();
+                reply.append("OK ").append(STATES[game.state]).append(' ').append(game.minesLeft());
+                break;
+            }
+            case "VIEW": {
+                arguments(words, 1, 1);
+                Game game = session(connection, words[1]);
+                BoardModel model = game.model;
+                reply.append("OK ");
+                for (int i = 0; i < model.cellCount; i++) {
+                    if (model.isRevealed(i)) {
+                        reply.append((char) ('0' + model.adjacentMines(i)));
+                    } else if (game.state == Game.LOST && model.isMine(i)) {
+                        reply.append('*');
+                    } else if (model.isFlagged(i)) {
+                        reply.append('F');
+                    } else {
+                        reply.append(model.isQuestioned(i) ? '?' : '#');
+                    }
+                }
+                break;
+            }
+            case "CLOSE": {
+                arguments(words, 1, 1);
+                Game game = connection.games.remove(number(words[1]));
+                if (game == null) {
+                    throw new IllegalArgumentException("no session " + words[1]);
+                }
+                game.release();
+                sessions.decrementAndGet();
+                reply.append("OK");
+                break;
+            }
+            case "STATS": {
+                arguments(words, 0, 0);
+                Runtime runtime = Runtime.getRuntime();
+                reply.append("OK sessions=").append(sessions.get())
+                        .append(" created=").append(sessionsCreated.get())
+                        .append(" connections=").append(connections.get())
+                        .append(" moves=").append(moves.get())
+                        .append(" heapMB=").append((runtime.totalMemory() - runtime.freeMemory()) >> 20);
+                if (arena != null) {
+                    reply.append(' ').append(arena.stats());
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown command " + words[0]);
+        }
+    }
+
+    // Checks the command got between min and max arguments
+    private static void arguments(String[] words, int min, int max) {
+        int count = words.length - 1;
+        if (count < min || count > max) {
+            String expected = min == max ? String.valueOf(min) : min + " to " + max;
+            throw new IllegalArgumentException(words[0] + " takes " + expected + (max == 1 ? " argument" : " arguments")
+                    + ", got " + count);
+        }
+    }
+
+    private static int number(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number " + text);
+        }
+    }
+
+    private static long longNumber(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number " + text);
+        }
+    }
+
+    private static Game session(Connection connection, String id) {
+        Game game = connection.games.get(number(id));
+        if (game == null) {
+            throw new IllegalArgumentException("no session " + id);
+        }
+        return game;
+    }
+
+    private static int cell(Game game, String text) {
+        int cell = number(text);
+        if (cell < 0 || cell >= game.model.cellCount) {
+            throw new IllegalArgumentException("cell out of range " + cell);
+        }
+        return cell;
+    }
+
+    static ServerSocketChannel open(int port, Path unixSocket) throws IOException {
+        if (unixSocket != null) {
+            Files.deleteIfExists(unixSocket);
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(unixSocket));
+            return server;
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        return server;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        Path unixSocket = null;
+        boolean offHeap = false;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--port":
+                    port = Integer.parseInt(args[++k]);
+                    break;
+                case "--unix":
+                    unixSocket = Path.of(args[++k]);
+                    break;
+                case "--off-heap":
+                    offHeap = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[k]);
+            }
+        }
+        ServerSocketChannel server = open(port, unixSocket);
+        System.out.printf("Listening on %s, boards %s%n", unixSocket != null ? unixSocket : "127.0.0.1:" + port,
+                offHeap ? "off-heap" : "on the heap");
+        new GameServer(offHeap ? new OffHeapArena() : null).serve(server);
+    }
+}
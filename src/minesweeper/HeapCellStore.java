@@ -0,0 +1,72 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+// The default store: one long[] holding the four planes back to back and a byte per neighbour count
+public class HeapCellStore implements CellStore {
+    private long[] bits = new long[0];
+    private byte[] adjacent = new byte[0];
+    private int stride; // Words per plane
+
+    @Override
+    public int capacity() {
+        return stride;
+    }
+
+    @Override
+    public void allocate(int words) {
+        bits = new long[PLANES * words];
+        adjacent = new byte[words << 6];
+        stride = words;
+    }
+
+    @Override
+    public boolean get(int plane, int i) {
+        return (bits[plane * stride + (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    @Override
+    public void set(int plane, int i, boolean value) {
+        int w = plane * stride + (i >>> 6);
+        if (value) {
+            bits[w] |= 1L << i;
+        } else {
+            bits[w] &= ~(1L << i);
+        }
+    }
+
+    @Override
+    public long word(int plane, int w) {
+        return bits[plane * stride + w];
+    }
+
+    @Override
+    public void setWord(int plane, int w, long value) {
+        bits[plane * stride + w] = value;
+    }
+
+    @Override
+    public int adjacent(int i) {
+        return adjacent[i];
+    }
+
+    @Override
+    public void setAdjacent(int i, int count) {
+        adjacent[i] = (byte) count;
+    }
+
+    @Override
+    public void clearWord(int w) {
+        for (int plane = 0; plane < PLANES; plane++) {
+            bits[plane * stride + w] = 0;
+        }
+        Arrays.fill(adjacent, w << 6, (w + 1) << 6, (byte) 0);
+    }
+
+    @Override
+    public void release() {
+        bits = new long[0];
+        adjacent = new byte[0];
+        stride = 0;
+    }
+}
@@ -0,0 +1,221 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Every state a game has been in since its first click, for unlimited undo and redo.
+// A version is a persistent trie over the board's player marks (revealed, flag and question mark planes) in
+// chunks of CHUNK_WORDS words. A move copies only the chunks it touched and the nodes on their paths, every
+// other chunk is shared with the version before, so a flag costs one chunk and a cascade the chunks it opened.
+// A null node is an all-zero part of the board, which makes an untouched board free.
+// Going from one version to another walks both tries together and skips every subtree they share,
+// so a jump costs the chunks that differ however far apart the versions are.
+//
+// The mines never change once placed. History starts with the first click, which placed them around itself,
+// so undo stops there: going back further would let a second first click land on a mine it was not kept clear of.
+public class History {
+    static final int CHUNK_WORDS = 4; // 256 cells a leaf
+    static final int BITS = 5;
+    static final int BRANCH = 1 << BITS;
+    static final int[] PLANES = {CellStore.REVEALED, CellStore.FLAGGED, CellStore.QUESTIONED};
+
+    // Inner nodes have kids, leaves have the chunk's words plane after plane. A node belongs to the commit
+    // that made it and is only ever changed during that commit, later versions copy it instead.
+    static final class Node {
+        final int edit;
+        final Node[] kids;
+        final long[] bits;
+
+        Node(int edit, Node[] kids, long[] bits) {
+            this.edit = edit;
+            this.kids = kids;
+            this.bits = bits;
+        }
+    }
+
+    // One point in the game, with the counters that go with the board
+    static final class Version {
+        final Node root;
+        final int tilesClicked;
+        final int flagCount;
+        final int state;
+        final int moves; // Moves in the log up to here
+
+        Version(Node root, int tilesClicked, int flagCount, int state, int moves) {
+            this.root = root;
+            this.tilesClicked = tilesClicked;
+            this.flagCount = flagCount;
+            this.state = state;
+            this.moves = moves;
+        }
+    }
+
+    final ArrayList<Version> versions = new ArrayList<>();
+    int at = -1; // Version the board is showing, -1 before the first click
+    private Node root; // The board as of the last commit or jump, kept before the first click too
+    private int levels; // Inner levels above the leaves
+    private int edit;
+    private int[] cells = new int[64]; // Cells a jump changed, handed out through the ChangeSet
+
+    // Starts over from what is on the board now: empty after a reset, or a loaded game
+    void reset(Game game) {
+        BoardModel model = game.model;
+        int chunks = Math.max(1, (model.words + CHUNK_WORDS - 1) / CHUNK_WORDS);
+        levels = 0;
+        while ((1L << (BITS * levels)) < chunks) {
+            levels++;
+        }
+        versions.clear();
+        at = -1;
+        root = null;
+        edit++;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (!zeroChunk(model, chunk)) {
+                root = copyChunk(root, levels, chunk, model);
+            }
+        }
+        if (game.minesPlaced()) {
+            push(game);
+        }
+    }
+
+    boolean canUndo() {
+        return at > 0;
+    }
+
+    boolean canRedo() {
+        return at >= 0 && at < versions.size() - 1;
+    }
+
+    // Log length to go back to before the next move is recorded, -1 when no moves are being thrown away
+    int redoMovesDropped() {
+        return canRedo() ? versions.get(at).moves : -1;
+    }
+
+    // Takes in what a move changed. Versions past the current one are dropped, the move replaced them.
+    void commit(Game game, ChangeSet changes) {
+        BoardModel model = game.model;
+        edit++;
+        // A losing click changes only the state, the cells list is all a move ever wrote to the board
+        int last = -1;
+        for (int k = 0; k < changes.count; k++) {
+            int chunk = (changes.cells[k] >>> 6) / CHUNK_WORDS;
+            if (chunk != last) {
+                root = copyChunk(root, levels, chunk, model);
+                last = chunk;
+            }
+        }
+        if (game.minesPlaced()) {
+            push(game);
+        }
+    }
+
+    private void push(Game game) {
+        while (versions.size() > at + 1) {
+            versions.remove(versions.size() - 1);
+        }
+        versions.add(new Version(root, game.tilesClicked, game.flagCount, game.state, game.log.moves));
+        at = versions.size() - 1;
+    }
+
+    // Puts the board and counters back to version target, changes lists the cells that differ
+    void goTo(Game game, int target, ChangeSet changes) {
+        Version to = versions.get(target);
+        changes.count = 0;
+        diff(root, to.root, levels, 0, game.model, changes);
+        changes.cells = cells;
+        changes.openedDelta = to.tilesClicked - game.tilesClicked;
+        changes.flagDelta = to.flagCount - game.flagCount;
+        changes.allCells = to.state != game.state; // Mines are shown or hidden again
+        game.tilesClicked = to.tilesClicked;
+        game.flagCount = to.flagCount;
+        game.state = to.state;
+        root = to.root;
+        at = target;
+    }
+
+    private void diff(Node from, Node to, int level, int chunk, BoardModel model, ChangeSet changes) {
+        if (from == to) {
+            return;
+        }
+        if (level == 0) {
+            restoreChunk(from, to, chunk, model, changes);
+            return;
+        }
+        for (int k = 0; k < BRANCH; k++) {
+            Node a = from == null ? null : from.kids[k];
+            Node b = to == null ? null : to.kids[k];
+            if (a != b) {
+                diff(a, b, level - 1, (chunk << BITS) | k, model, changes);
+            }
+        }
+    }
+
+    private void restoreChunk(Node from, Node to, int chunk, BoardModel model, ChangeSet changes) {
+        for (int j = 0; j < CHUNK_WORDS; j++) {
+            int w = chunk * CHUNK_WORDS + j;
+            if (w >= model.words) {
+                return;
+            }
+            long changed = 0;
+            for (int p = 0; p < PLANES.length; p++) {
+                long before = from == null ? 0 : from.bits[p * CHUNK_WORDS + j];
+                long after = to == null ? 0 : to.bits[p * CHUNK_WORDS + j];
+                if (before != after) {
+                    model.setWord(PLANES[p], w, after);
+                    changed |= before ^ after;
+                }
+            }
+            while (changed != 0) {
+                if (changes.count == cells.length) {
+                    cells = Arrays.copyOf(cells, cells.length * 2);
+                }
+                cells[changes.count++] = (w << 6) + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    // Path copy down to the chunk's leaf, reusing nodes this commit already made, and the leaf gets the board's words
+    private Node copyChunk(Node node, int level, int chunk, BoardModel model) {
+        if (level == 0) {
+            if (node != null && node.edit == edit) {
+                return node; // Already read from the board in this commit
+            }
+            long[] bits = new long[PLANES.length * CHUNK_WORDS];
+            for (int j = 0; j < CHUNK_WORDS; j++) {
+                int w = chunk * CHUNK_WORDS + j;
+                if (w < model.words) {
+                    for (int p = 0; p < PLANES.length; p++) {
+                        bits[p * CHUNK_WORDS + j] = model.word(PLANES[p], w);
+                    }
+                }
+            }
+            return new Node(edit, null, bits);
+        }
+        Node copy = node;
+        if (node == null) {
+            copy = new Node(edit, new Node[BRANCH], null);
+        } else if (node.edit != edit) {
+            copy = new Node(edit, node.kids.clone(), null);
+        }
+        int k = (chunk >>> (BITS * (level - 1))) & (BRANCH - 1);
+        copy.kids[k] = copyChunk(copy.kids[k], level - 1, chunk, model);
+        return copy;
+    }
+
+    private static boolean zeroChunk(BoardModel model, int chunk) {
+        for (int j = 0; j < CHUNK_WORDS; j++) {
+            int w = chunk * CHUNK_WORDS + j;
+            if (w >= model.words) {
+                break;
+            }
+            for (int plane : PLANES) {
+                if (model.word(plane, w) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
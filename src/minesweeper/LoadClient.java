@@ -0,0 +1,208 @@
+package minesweeper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load generator for GameServer. Each connection opens its share of the sessions up front, so the server
+// holds all of them at once, then plays them round-robin with random reveals until every game is over.
+// Reports sessions per second and the round-trip time of single moves.
+//
+//   java minesweeper.App --load [--port 7878 | --unix path] [--connections 100] [--sessions 100000]
+//                               [--difficulty expert] [--seed n]
+public class LoadClient {
+    final Metrics.Histogram moveLatency = new Metrics.Histogram();
+    final AtomicLong finished = new AtomicLong();
+    final AtomicLong moves = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+
+    int port = GameServer.DEFAULT_PORT;
+    Path unixSocket;
+
+    SocketChannel connect() throws IOException {
+        if (unixSocket != null) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(unixSocket));
+            return channel;
+        }
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    // Plays sessions games of the given size on one connection, created is counted down once all are open
+    void runConnection(int sessions, int[] difficulty, long seed, CountDownLatch created) {
+        int rows = difficulty[0];
+        int cols = difficulty[1];
+        int cells = rows * cols;
+        int words = (cells + 63) >>> 6;
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean counted = false;
+        try (SocketChannel channel = connect();
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.US_ASCII))) {
+            // Sessions are created in one pipelined burst
+            for (int s = 0; s < sessions; s++) {
+                out.write("NEW " + rows + " " + cols + " " + difficulty[2] + " " + random.nextLong() + "\n");
+            }
+            out.flush();
+            int[] ids = new int[sessions];
+            for (int s = 0; s < sessions; s++) {
+                ids[s] = Integer.parseInt(okReply(in).substring(3));
+            }
+            counted = true;
+            created.countDown();
+
+            long[] opened = new long[sessions * words]; // What this client has seen opened, per session
+            int live = sessions;
+            boolean[] over = new boolean[sessions];
+            while (live > 0) {
+                for (int s = 0; s < sessions; s++) {
+                    if (over[s]) {
+                        continue;
+                    }
+                    int cell = random.nextInt(cells);
+                    for (int tries = 0; tries < 64 && BoardModel.get(opened, s * words * 64 + cell); tries++) {
+                        cell = random.nextInt(cells);
+                    }
+                    long start = System.nanoTime();
+                    out.write("R " + ids[s] + " " + cell + "\n");
+                    out.flush();
+                    String reply = reply(in);
+                    moveLatency.record(System.nanoTime() - start);
+                    moves.incrementAndGet();
+                    if (!reply.startsWith("OK")) {
+                        // Retrying would get the same answer forever, the server drops the session when we QUIT
+                        errors.incrementAndGet();
+                        over[s] = true;
+                        live--;
+                        continue;
+                    }
+                    String[] parts = reply.split(" ");
+                    for (int k = 3; k < parts.length; k++) {
+                        int opensAt = Integer.parseInt(parts[k].substring(0, parts[k].indexOf(':')));
+                        BoardModel.set(opened, s * words * 64 + opensAt, true);
+                    }
+                    if (!parts[1].equals("0")) {
+                        over[s] = true;
+                        live--;
+                        finished.incrementAndGet();
+                        out.write("CLOSE " + ids[s] + "\n");
+                        out.flush();
+                        okReply(in);
+                    }
+                }
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            if (!counted) {
+                created.countDown(); // Don't leave main waiting for sessions that will never open
+            }
+        }
+    }
+
+    // The next reply, a closed connection is an error rather than a null
+    static String reply(BufferedReader in) throws IOException {
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new IOException("Server closed the connection");
+        }
+        return reply;
+    }
+
+    // The next reply, which has to be OK: the requests it answers are ones this client can't go on without
+    static String okReply(BufferedReader in) throws IOException {
+        String reply = reply(in);
+        if (!reply.startsWith("OK")) {
+            throw new IOException("Server answered " + reply);
+        }
+        return reply;
+    }
+
+    String serverStats() {
+        try (SocketChannel channel = connect();
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.US_ASCII))) {
+            out.write("STATS\nQUIT\n");
+            out.flush();
+            return in.readLine();
+        } catch (IOException e) {
+            return "unavailable: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadClient client = new LoadClient();
+        int connections = 100;
+        int sessions = 100_000;
+        String difficultyName = "expert";
+        long seed = System.nanoTime();
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--port":
+                    client.port = Integer.parseInt(args[++k]);
+                    break;
+                case "--unix":
+                    client.unixSocket = Path.of(args[++k]);
+                    break;
+                case "--connections":
+                    connections = Integer.parseInt(args[++k]);
+                    break;
+                case "--sessions":
+                    sessions = Integer.parseInt(args[++k]);
+                    break;
+                case "--difficulty":
+                    difficultyName = args[++k];
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++k]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[k]);
+            }
+        }
+        int[] difficulty = Simulator.parseDifficulty(difficultyName);
+        connections = Math.max(1, Math.min(connections, sessions));
+
+        System.out.printf("%d sessions of %s over %d connections%n", sessions, difficultyName, connections);
+        CountDownLatch created = new CountDownLatch(connections);
+        ExecutorService executor = GameServer.newThreadPerTaskExecutor();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            int share = sessions / connections + (c < sessions % connections ? 1 : 0);
+            long connectionSeed = seeds.nextLong();
+            executor.execute(() -> client.runConnection(share, difficulty, connectionSeed, created));
+        }
+        created.await();
+        double openSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("all sessions open after %.2f s, server: %s%n", openSeconds, client.serverStats());
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games finished in %.2f s: %.0f sessions/s, %d moves (%.0f moves/s), %d errors%n",
+                client.finished.get(), seconds, client.finished.get() / seconds, client.moves.get(),
+                client.moves.get() / seconds, client.errors.get());
+        System.out.println("move latency " + client.moveLatency.summary(1000, "us"));
+    }
+}
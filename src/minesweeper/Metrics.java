@@ -0,0 +1,286 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import javax.swing.SwingUtilities;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Responsiveness numbers for the UI: click-to-paint latency, time and size of each move, board build time,
+// and how late the EDT runs what is posted to it. Everything lands in histograms that can be snapshotted
+// to a JSON lines file or shown by the debug overlay, and each sample is also a JFR event, so
+//   java -XX:StartFlightRecording=filename=game.jfr -jar minesweeper.jar
+// records them next to the JVM's own GC and safepoint events.
+//
+//   -Dminesweeper.metrics=<file>        append a snapshot to the file every interval
+//   -Dminesweeper.metrics.interval=<s>  seconds between snapshots, 10 by default
+public class Metrics {
+    static final long STALL_NANOS = 100_000_000; // The EDT running something 100 ms late is a stall
+    static final long HEARTBEAT_MILLIS = 20;
+
+    final Histogram clickToPaint = new Histogram();
+    final Histogram moveTime = new Histogram();
+    final Histogram cascadeCells = new Histogram();
+    final Histogram boardBuild = new Histogram();
+    final Histogram edtDelay = new Histogram();
+    final AtomicLong stalls = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long heartbeatPosted; // nanoTime of the heartbeat waiting on the EDT, 0 when none is
+    private volatile Thread edt;
+    private String stalledStack; // Only touched by the scheduler thread
+    private long stalledSince;
+
+    @Name("minesweeper.Move")
+    @Label("Move")
+    @Category("Minesweeper")
+    static class MoveEvent extends Event {
+        @Label("Action")
+        int action;
+        @Label("Cell")
+        int cell;
+        @Label("Cells changed")
+        int cells;
+        @Label("Elapsed")
+        @Timespan
+        long elapsed;
+    }
+
+    @Name("minesweeper.ClickToPaint")
+    @Label("Click to paint")
+    @Category("Minesweeper")
+    static class ClickToPaintEvent extends Event {
+        @Label("Latency")
+        @Timespan
+        long latency;
+    }
+
+    @Name("minesweeper.BoardBuild")
+    @Label("Board build")
+    @Category("Minesweeper")
+    static class BoardBuildEvent extends Event {
+        @Label("Rows")
+        int rows;
+        @Label("Columns")
+        int cols;
+        @Label("Mines")
+        int mines;
+        @Label("Elapsed")
+        @Timespan
+        long elapsed;
+    }
+
+    @Name("minesweeper.EdtStall")
+    @Label("EDT stall")
+    @Category("Minesweeper")
+    static class EdtStallEvent extends Event {
+        @Label("Delay")
+        @Timespan
+        long delay;
+        @Label("EDT stack")
+        String stack;
+    }
+
+    // Log-linear buckets, 8 per power of two, so any value is recorded within 12.5% and recording is one
+    // atomic increment. Safe to record and read from any thread.
+    static class Histogram {
+        static final int SUB_BITS = 3;
+        static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+        final AtomicLong count = new AtomicLong();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long value) {
+            value = Math.max(0, value);
+            counts.incrementAndGet(bucket(value));
+            count.incrementAndGet();
+            max.accumulate(value);
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        // Smallest value that falls in the bucket
+        static long lowest(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        }
+
+        // Value at or below which the fraction p of the samples fall, the top of the bucket it lands in
+        long percentile(double p) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(p * total));
+            long seen = 0;
+            for (int b = 0; b < counts.length(); b++) {
+                seen += counts.get(b);
+                if (seen >= target) {
+                    return Math.min(max.get(), b + 1 < counts.length() ? lowest(b + 1) - 1 : Long.MAX_VALUE);
+                }
+            }
+            return max.get();
+        }
+
+        // divisor turns the raw values into the unit the caller wants, 1000 for nanoseconds to microseconds
+        String json(long divisor) {
+            return String.format("{\"count\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+                    count.get(), percentile(0.5) / divisor, percentile(0.9) / divisor, percentile(0.99) / divisor,
+                    percentile(0.999) / divisor, max.get() / divisor);
+        }
+
+        String summary(long divisor, String unit) {
+            return String.format("p50 %d  p99 %d  p99.9 %d  max %d %s  (%d)", percentile(0.5) / divisor,
+                    percentile(0.99) / divisor, percentile(0.999) / divisor, max.get() / divisor, unit, count.get());
+        }
+    }
+
+    // A move was played on the EDT: how long the rules took and how many cells it changed
+    void recordMove(int action, int cell, int cells, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        moveTime.record(nanos);
+        if (action == Game.REVEAL) {
+            cascadeCells.record(cells);
+        }
+        MoveEvent event = new MoveEvent();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.cell = cell;
+            event.cells = cells;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    // The paint that shows a click finished, startNanos is when the click reached the listener
+    void recordClickToPaint(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        clickToPaint.record(nanos);
+        ClickToPaintEvent event = new ClickToPaintEvent();
+        if (event.shouldCommit()) {
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    void recordBoardBuild(int rows, int cols, int mines, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        boardBuild.record(nanos);
+        BoardBuildEvent event = new BoardBuildEvent();
+        if (event.shouldCommit()) {
+            event.rows = rows;
+            event.cols = cols;
+            event.mines = mines;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    // Posts a heartbeat to the EDT every 20 ms and measures how late it runs. A heartbeat still waiting
+    // past the stall threshold gets the EDT's stack captured, which is where the time is going.
+    void startStallDetector() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            long posted = heartbeatPosted;
+            if (posted == 0) {
+                long now = System.nanoTime();
+                heartbeatPosted = now;
+                SwingUtilities.invokeLater(() -> {
+                    edt = Thread.currentThread();
+                    long delay = System.nanoTime() - now;
+                    edtDelay.record(delay);
+                    heartbeatPosted = 0;
+                    if (delay >= STALL_NANOS) {
+                        stalls.incrementAndGet();
+                    }
+                });
+            } else if (System.nanoTime() - posted >= STALL_NANOS && edt != null && stalledStack == null) {
+                stalledStack = stackOf(edt);
+                stalledSince = posted;
+            }
+            // The stall is over once its heartbeat ran, report it with the stack seen while it was stuck
+            if (stalledStack != null && heartbeatPosted != stalledSince) {
+                EdtStallEvent event = new EdtStallEvent();
+                if (event.shouldCommit()) {
+                    event.delay = System.nanoTime() - stalledSince;
+                    event.stack = stalledStack;
+                    event.commit();
+                }
+                stalledStack = null;
+            }
+        }, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static String stackOf(Thread thread) {
+        StringBuilder text = new StringBuilder();
+        StackTraceElement[] frames = thread.getStackTrace();
+        for (int k = 0; k < Math.min(frames.length, 12); k++) {
+            text.append(frames[k]).append('\n');
+        }
+        return text.toString();
+    }
+
+    // One JSON object, times in microseconds
+    String snapshot() {
+        return String.format("{\"time\":\"%s\",\"clickToPaintUs\":%s,\"moveUs\":%s,\"cascadeCells\":%s,"
+                        + "\"boardBuildUs\":%s,\"edtDelayUs\":%s,\"edtStalls\":%d}",
+                Instant.now(), clickToPaint.json(1000), moveTime.json(1000), cascadeCells.json(1),
+                boardBuild.json(1000), edtDelay.json(1000), stalls.get());
+    }
+
+    void appendSnapshot(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            out.write(snapshot());
+            out.write('\n');
+        }
+    }
+
+    // Turned on by -Dminesweeper.metrics=<file>
+    void startPeriodicSnapshots() {
+        String file = System.getProperty("minesweeper.metrics");
+        if (file == null) {
+            return;
+        }
+        Path path = Path.of(file);
+        long interval = Long.getLong("minesweeper.metrics.interval", 10);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                appendSnapshot(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,52 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+// Places mines with a partial Fisher-Yates shuffle over the cell indices.
+// Each mine costs one swap, so placement is linear in the board size at any density,
+// and the same seed and first click always give the same board.
+public class MinePlacer {
+    private int[] candidates = new int[0]; // Reused between games, only grows
+
+    // Places mines into the model, keeping safeCell and its neighbours clear when the board has room.
+    // Pass -1 as safeCell to allow mines anywhere.
+    void place(BoardModel model, int mines, long seed, int safeCell) {
+        int n = collectCandidates(model, safeCell, true);
+        if (n < mines) {
+            n = collectCandidates(model, safeCell, false); // Too dense to clear the neighbours, keep just the cell
+        }
+        mines = Math.min(mines, n);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] cells = candidates;
+        for (int k = 0; k < mines; k++) {
+            int j = k + random.nextInt(n - k);
+            int picked = cells[j];
+            cells[j] = cells[k];
+            cells[k] = picked;
+            model.placeMine(picked);
+        }
+    }
+
+    private int collectCandidates(BoardModel model, int safeCell, boolean clearNeighbours) {
+        if (candidates.length < model.cellCount) {
+            candidates = new int[model.cellCount];
+        }
+        int safeRow = safeCell >= 0 ? model.row(safeCell) : -2;
+        int safeCol = safeCell >= 0 ? model.col(safeCell) : -2;
+        int reach = clearNeighbours ? 1 : 0;
+
+        int n = 0;
+        for (int r = 0; r < model.numRows; r++) {
+            boolean nearRow = Math.abs(r - safeRow) <= reach;
+            int i = r * model.numCols;
+            for (int c = 0; c < model.numCols; c++, i++) {
+                if (nearRow && Math.abs(c - safeCol) <= reach) {
+                    continue;
+                }
+                candidates[n++] = i;
+            }
+        }
+        return n;
+    }
+}
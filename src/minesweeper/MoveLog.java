@@ -0,0 +1,223 @@
+package minesweeper;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Every move of one game, packed as two varints per move:
+//   (zigzag(cell - previous cell) << 2) | action
+//   milliseconds since the previous move
+// Nearby clicks and quick moves take two or three bytes. With the board size, mine count and seed in front
+// this is all it takes to play the game again exactly.
+// The buffer is allocated on the first move and only grows, so recording never allocates in a normal game,
+// and a game that is never recorded (a server session, a replay) costs nothing.
+public class MoveLog {
+    static final int MAGIC = 0x4D534C47; // "MSLG"
+    static final int VERSION = 1;
+    static final int MAX_MOVE_BYTES = 20; // Two 10-byte varints
+
+    int rows;
+    int cols;
+    int mines;
+    long seed;
+    int moves;
+    boolean partial; // Set when the game was resumed from a save, so its first moves are missing
+    long finalHash; // Replay.fingerprint of the game when the log was written, 0 if it wasn't taken
+
+    static final int INITIAL_BYTES = 4096;
+
+    byte[] data = new byte[0];
+    int size;
+
+    private long startNanos;
+    private int lastCell;
+    private long lastMillis;
+
+    // A new game on a board of this size and seed, the clock starts now
+    void start(int rows, int cols, int mines, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.seed = seed;
+        moves = 0;
+        size = 0;
+        partial = false;
+        finalHash = 0;
+        lastCell = 0;
+        lastMillis = 0;
+        startNanos = System.nanoTime();
+    }
+
+    void record(int action, int cell, long nanos) {
+        long millis = Math.max(lastMillis, (nanos - startNanos) / 1_000_000); // nanoTime is monotonic, this just guards the maths
+        if (data.length - size < MAX_MOVE_BYTES) {
+            data = Arrays.copyOf(data, Math.max(INITIAL_BYTES, data.length * 2));
+        }
+        int delta = cell - lastCell;
+        writeVarint(((long) ((delta << 1) ^ (delta >> 31)) & 0xffffffffL) << 2 | action);
+        writeVarint(millis - lastMillis);
+        lastCell = cell;
+        lastMillis = millis;
+        moves++;
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    // Drops every move after the first moves, for a move played after an undo
+    void truncate(int keep) {
+        if (keep >= moves) {
+            return;
+        }
+        Reader reader = reader();
+        for (int k = 0; k < keep; k++) {
+            reader.next();
+        }
+        size = reader.pos;
+        moves = keep;
+        lastCell = reader.cell;
+        lastMillis = reader.millis;
+    }
+
+    // Milliseconds from the start of the game to the last move
+    long durationMillis() {
+        return lastMillis;
+    }
+
+    MoveLog copy() {
+        MoveLog copy = new MoveLog();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    void copyFrom(MoveLog other) {
+        rows = other.rows;
+        cols = other.cols;
+        mines = other.mines;
+        seed = other.seed;
+        moves = other.moves;
+        partial = other.partial;
+        finalHash = other.finalHash;
+        data = Arrays.copyOf(other.data, Math.max(other.data.length, 16));
+        size = other.size;
+        lastCell = other.lastCell;
+        lastMillis = other.lastMillis;
+        // The clock carries on from the last move. A log read from disk has no start time of its own,
+        // and copying it over would date the next move by the system uptime.
+        startNanos = System.nanoTime() - lastMillis * 1_000_000;
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    // Walks the moves in order, next() fills in cell, action and millis (time since the game started)
+    class Reader {
+        int cell;
+        int action;
+        long millis;
+        int index;
+        private int pos;
+
+        boolean next() {
+            if (index == moves) {
+                return false;
+            }
+            long packed = readVarint();
+            int zigzag = (int) (packed >>> 2);
+            action = (int) (packed & 3);
+            cell += (zigzag >>> 1) ^ -(zigzag & 1);
+            millis += readVarint();
+            index++;
+            return true;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(file)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeInt(mines);
+            out.writeLong(seed);
+            out.writeBoolean(partial);
+            out.writeLong(finalHash);
+            out.writeInt(moves);
+            out.writeInt(size);
+            out.write(data, 0, size);
+        }
+    }
+
+    static MoveLog read(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(file)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a move log");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported move log version " + version);
+            }
+            MoveLog log = new MoveLog();
+            log.rows = in.readInt();
+            log.cols = in.readInt();
+            log.mines = in.readInt();
+            log.seed = in.readLong();
+            log.partial = in.readBoolean();
+            log.finalHash = in.readLong();
+            log.moves = in.readInt();
+            log.size = in.readInt();
+            if (log.rows <= 0 || log.cols <= 0 || log.moves < 0 || log.size < 0 || log.size > (long) log.moves * MAX_MOVE_BYTES) {
+                throw new IOException("Corrupt move log header");
+            }
+            log.data = new byte[Math.max(log.size, 16)];
+            in.readFully(log.data, 0, log.size);
+
+            // Walk the moves once, which checks them and restores the last cell and time for appending
+            try {
+                Reader reader = log.reader();
+                while (reader.next()) {
+                    log.lastCell = reader.cell;
+                    log.lastMillis = reader.millis;
+                }
+                if (reader.pos != log.size) {
+                    throw new IOException("Corrupt move log");
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Corrupt move log");
+            }
+            return log;
+        }
+    }
+
+    static Path lastLogPath() {
+        return Path.of(System.getProperty("user.home"), ".minesweeper", "last.mslog");
+    }
+}
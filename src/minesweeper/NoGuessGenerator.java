@@ -0,0 +1,281 @@
+package minesweeper;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+// Builds boards that can be cleared from the first click by deduction alone.
+// Random boards are checked against the Solver and rejected until one works, which is far too slow
+// to do in resetGame, so worker threads keep a small queue of ready boards for the difficulty last asked for.
+// Boards bigger than MAX_PREFETCH_CELLS are only built while someone is waiting for one: every solver pass
+// allocates board-sized arrays, and a Custom size tried once shouldn't keep the workers busy.
+// Some specs (a dense Custom board) almost never come out solvable, so a difficulty is given up on once a worker
+// has spent GIVE_UP_NANOS and at least GIVE_UP_ATTEMPTS candidates on one board, and its waiter fails.
+public class NoGuessGenerator {
+    static final int QUEUE_CAPACITY = 4;
+    static final int MAX_PREFETCH_CELLS = 1 << 16;
+    static final long GIVE_UP_NANOS = 10_000_000_000L;
+    static final int GIVE_UP_ATTEMPTS = 100; // Big boards are slow per candidate but still deserve a fair number of tries
+
+    // A ready board is just its seed and start cell, MinePlacer rebuilds the same mines from them
+    static class Board {
+        final Spec spec;
+        final long seed;
+        final int startCell;
+
+        Board(Spec spec, long seed, int startCell) {
+            this.spec = spec;
+            this.seed = seed;
+            this.startCell = startCell;
+        }
+    }
+
+    static class Spec {
+        final int rows;
+        final int cols;
+        final int mines;
+
+        Spec(int rows, int cols, int mines) {
+            this.rows = rows;
+            this.cols = cols;
+            this.mines = mines;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Spec)) {
+                return false;
+            }
+            Spec other = (Spec) o;
+            return rows == other.rows && cols == other.cols && mines == other.mines;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rows, cols, mines);
+        }
+    }
+
+    private static class Slot {
+        final Spec spec;
+        final BlockingQueue<Board> ready = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        int generating; // Workers currently building a board for this slot
+        CompletableFuture<Board> waiter; // Completed by the worker that builds the next board, guarded by the generator
+        volatile boolean gaveUp; // No solvable board turned up in time, nothing more is built for this spec
+
+        // Boards to keep queued or being built
+        int target() {
+            if (gaveUp) {
+                return 0;
+            }
+            if (spec.rows * spec.cols <= MAX_PREFETCH_CELLS) {
+                return QUEUE_CAPACITY;
+            }
+            return waiter != null ? 1 : 0;
+        }
+
+        Slot(Spec spec) {
+            this.spec = spec;
+        }
+    }
+
+    final LongAdder generated = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    // The difficulty being played, the only one boards are built for. Changed under the lock, workers also
+    // read it without the lock to stop building for a difficulty that is no longer played.
+    private volatile Slot current;
+    private final Solver solver = new Solver();
+
+    NoGuessGenerator() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    NoGuessGenerator(int workers) {
+        for (int k = 0; k < workers; k++) {
+            Thread worker = new Thread(this::workLoop, "no-guess-generator-" + k);
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.start();
+        }
+    }
+
+    // A ready board, or null if the queue for this difficulty is empty right now.
+    // Asking again means an earlier waiter from next() is stale: its game was reset, so it is cancelled
+    // rather than left to take the next board and throw it away.
+    synchronized Board poll(int rows, int cols, int mines) {
+        Slot slot = slot(new Spec(rows, cols, mines));
+        if (slot.waiter != null) {
+            slot.waiter.cancel(false);
+            slot.waiter = null;
+        }
+        Board board = slot.ready.poll();
+        if (board != null) {
+            notifyAll(); // Room in the queue again
+        }
+        return board;
+    }
+
+    // Completes with the next board for this difficulty, immediately if one is queued. Otherwise the worker
+    // that builds it completes the future, no pool thread is parked waiting on the queue.
+    // Fails with an IllegalStateException when the generator gave up on this difficulty.
+    synchronized CompletableFuture<Board> next(int rows, int cols, int mines) {
+        Board board = poll(rows, cols, mines);
+        if (board != null) {
+            return CompletableFuture.completedFuture(board);
+        }
+        Slot slot = current;
+        if (slot.gaveUp) {
+            return CompletableFuture.failedFuture(noBoard(slot.spec));
+        }
+        slot.waiter = new CompletableFuture<>();
+        notifyAll(); // A big board is only built now that someone waits
+        return slot.waiter;
+    }
+
+    // Accepted boards per second since the generator started
+    double generationRate() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? generated.sum() / seconds : 0;
+    }
+
+    // Share of candidate boards that needed a guess and were thrown away
+    double rejectionRatio() {
+        long accepted = generated.sum();
+        long thrownAway = rejected.sum();
+        return accepted + thrownAway > 0 ? (double) thrownAway / (accepted + thrownAway) : 0;
+    }
+
+    // The slot for spec, which becomes the current one. The queue of the difficulty played before is dropped,
+    // and workers still building for it see it is no longer current after their next candidate and stop.
+    private Slot slot(Spec spec) {
+        if (current != null && current.spec.equals(spec)) {
+            return current;
+        }
+        if (current != null && current.waiter != null) {
+            current.waiter.cancel(false);
+        }
+        current = new Slot(spec);
+        notifyAll();
+        return current;
+    }
+
+    private void workLoop() {
+        SplittableRandom seeds = new SplittableRandom();
+        MinePlacer placer = new MinePlacer();
+        BoardModel model = new BoardModel(0, 0);
+        while (true) {
+            Slot slot;
+            try {
+                slot = claimSlot();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Board board = null;
+            try {
+                board = generate(slot, seeds, placer, model);
+            } finally {
+                synchronized (this) {
+                    slot.generating--;
+                    if (slot == current) {
+                        if (board != null) {
+                            handOver(slot, board);
+                        } else {
+                            giveUp(slot);
+                        }
+                    }
+                }
+            }
+            if (model.cellCount > MAX_PREFETCH_CELLS) {
+                model.release(); // Don't sit on a big board's arrays between requests, generate() resizes it again
+            }
+        }
+    }
+
+    // Straight to the waiting caller if there is one, into the queue otherwise
+    private void handOver(Slot slot, Board board) {
+        if (slot.waiter != null) {
+            CompletableFuture<Board> waiter = slot.waiter;
+            slot.waiter = null;
+            if (waiter.complete(board)) {
+                return;
+            }
+        }
+        slot.ready.offer(board);
+    }
+
+    // Nothing more is built for the slot, and whoever waits for it is told so and can play a normal board
+    private void giveUp(Slot slot) {
+        slot.gaveUp = true;
+        if (slot.waiter != null) {
+            slot.waiter.completeExceptionally(noBoard(slot.spec));
+            slot.waiter = null;
+        }
+    }
+
+    private static IllegalStateException noBoard(Spec spec) {
+        return new IllegalStateException(String.format("No board without guessing found for %dx%d with %d mines",
+                spec.rows, spec.cols, spec.mines));
+    }
+
+    // Waits until the current difficulty's queue, counting boards already being built, has room
+    private synchronized Slot claimSlot() throws InterruptedException {
+        while (true) {
+            Slot slot = current;
+            if (slot != null && slot.ready.size() + slot.generating < slot.target()) {
+                slot.generating++;
+                return slot;
+            }
+            wait();
+        }
+    }
+
+    // Rejection sampling: random seeds until the solver can clear the board from the start cell.
+    // Null when the slot stopped being current, or when the spec looks impossible and the time ran out.
+    private Board generate(Slot slot, SplittableRandom seeds, MinePlacer placer, BoardModel model) {
+        Spec spec = slot.spec;
+        if (model.numRows != spec.rows || model.numCols != spec.cols) {
+            model.resize(spec.rows, spec.cols);
+        }
+        RevealEngine engine = new RevealEngine(model);
+        int startCell = model.index(spec.rows / 2, spec.cols / 2);
+        long start = System.nanoTime();
+        for (int attempt = 1; slot == current && !slot.gaveUp; attempt++) {
+            long seed = seeds.nextLong();
+            model.clear();
+            placer.place(model, spec.mines, seed, startCell);
+            if (solvable(model, engine, startCell)) {
+                generated.increment();
+                return new Board(spec, seed, startCell);
+            }
+            rejected.increment();
+            if (attempt >= GIVE_UP_ATTEMPTS && System.nanoTime() - start > GIVE_UP_NANOS) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Plays the board out using only what the solver can prove
+    boolean solvable(BoardModel model, RevealEngine engine, int startCell) {
+        int safeCells = model.cellCount - model.mineCount;
+        int opened = engine.reveal(startCell).count;
+        while (opened < safeCells) {
+            Solver.Analysis analysis = solver.deduce(model);
+            if (analysis.safe.size == 0) {
+                // The cheap rules are stuck, full enumeration with the mine total can still prove cells
+                analysis = solver.analyze(model, model.mineCount);
+                if (analysis.safe.size == 0) {
+                    return false;
+                }
+            }
+            for (int k = 0; k < analysis.safe.size; k++) {
+                opened += engine.reveal(analysis.safe.get(k)).count;
+            }
+        }
+        return true;
+    }
+}
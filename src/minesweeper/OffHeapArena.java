@@ -0,0 +1,181 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+// Packs the cells of many boards into direct memory at one byte per cell: a bit in each of the four planes
+// and a four bit neighbour count. Memory is carved out of 16 MB slabs in blocks rounded up to a quarter of
+// a power of two. A released block goes on the free list for its size and the next board of that size takes it,
+// so however many boards are resident the garbage collector only sees the small store objects.
+// Blocks bigger than a quarter slab get a direct buffer of their own, which is dropped when released.
+// Taking and giving back blocks is synchronized, a store itself is used by one thread like its Game.
+public class OffHeapArena {
+    static final int SLAB_BYTES = 1 << 24;
+    static final int BYTES_PER_WORD = CellStore.PLANES * 8 + 32; // 64 cells: one long per plane, 32 bytes of counts
+    static final int MAX_SLAB_BLOCK = SLAB_BYTES / 4;
+
+    private final HashMap<Integer, ArrayDeque<Block>> free = new HashMap<>(); // Keyed by the blocks' words
+    private ByteBuffer slab;
+    private int top = SLAB_BYTES; // Next free byte of the current slab
+    long reservedBytes; // Direct memory held, slabs and big blocks
+    long liveBytes; // Part of it in use by boards
+    int liveBlocks;
+
+    // A piece of a slab, or a buffer of its own for a big board
+    static class Block {
+        final ByteBuffer buffer;
+        final int base;
+        final int words;
+
+        Block(ByteBuffer buffer, int base, int words) {
+            this.buffer = buffer;
+            this.base = base;
+            this.words = words;
+        }
+    }
+
+    CellStore newStore() {
+        return new Store();
+    }
+
+    // Every block handed out is zero: fresh direct memory is, and stores are cleared before they give a block back
+    synchronized Block take(int words) {
+        int capacity = sizeClass(words);
+        long size = (long) capacity * BYTES_PER_WORD;
+        if (words <= 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Board too big for the arena: " + words + " words");
+        }
+        int bytes = (int) size;
+        liveBytes += bytes;
+        liveBlocks++;
+        ArrayDeque<Block> list = free.get(capacity);
+        if (list != null && !list.isEmpty()) {
+            return list.pop();
+        }
+        if (bytes > MAX_SLAB_BLOCK) {
+            reservedBytes += bytes;
+            return new Block(ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()), 0, capacity);
+        }
+        if (top + bytes > SLAB_BYTES) {
+            slab = ByteBuffer.allocateDirect(SLAB_BYTES).order(ByteOrder.nativeOrder());
+            top = 0;
+            reservedBytes += SLAB_BYTES;
+        }
+        Block block = new Block(slab, top, capacity);
+        top += bytes;
+        return block;
+    }
+
+    synchronized void give(Block block) {
+        int bytes = block.words * BYTES_PER_WORD;
+        liveBytes -= bytes;
+        liveBlocks--;
+        if (bytes > MAX_SLAB_BLOCK) {
+            reservedBytes -= bytes; // The buffer's memory is freed once nothing points at it
+            return;
+        }
+        free.computeIfAbsent(block.words, k -> new ArrayDeque<>()).push(block);
+    }
+
+    // Rounds up to a quarter of the power of two below, so a block wastes at most a fifth of itself
+    // and boards of about the same size still share free lists
+    static int sizeClass(int words) {
+        if (words <= 4) {
+            return Math.max(1, words);
+        }
+        int step = Integer.highestOneBit(words - 1) >>> 2;
+        return (int) (((long) words + step - 1) / step * step);
+    }
+
+    synchronized String stats() {
+        return String.format("offHeapMB=%d offHeapLiveMB=%d boards=%d", reservedBytes >> 20, liveBytes >> 20, liveBlocks);
+    }
+
+    // One board's view of its block: the four planes one after the other, then the counts two to a byte
+    class Store implements CellStore {
+        private Block block;
+        private ByteBuffer buffer;
+        private int base;
+        private int stride; // Words per plane
+        private int counts; // Offset of the neighbour counts
+
+        @Override
+        public int capacity() {
+            return stride;
+        }
+
+        @Override
+        public void allocate(int words) {
+            Block next = take(words);
+            if (block != null) {
+                give(block);
+            }
+            block = next;
+            buffer = next.buffer;
+            base = next.base;
+            stride = next.words;
+            counts = base + CellStore.PLANES * stride * 8;
+        }
+
+        private int offset(int plane, int w) {
+            return base + ((plane * stride + w) << 3);
+        }
+
+        @Override
+        public boolean get(int plane, int i) {
+            return (buffer.getLong(offset(plane, i >>> 6)) & (1L << i)) != 0;
+        }
+
+        @Override
+        public void set(int plane, int i, boolean value) {
+            int at = offset(plane, i >>> 6);
+            long word = buffer.getLong(at);
+            buffer.putLong(at, value ? word | (1L << i) : word & ~(1L << i));
+        }
+
+        @Override
+        public long word(int plane, int w) {
+            return buffer.getLong(offset(plane, w));
+        }
+
+        @Override
+        public void setWord(int plane, int w, long value) {
+            buffer.putLong(offset(plane, w), value);
+        }
+
+        @Override
+        public int adjacent(int i) {
+            return (buffer.get(counts + (i >>> 1)) >>> ((i & 1) << 2)) & 15;
+        }
+
+        @Override
+        public void setAdjacent(int i, int count) {
+            int at = counts + (i >>> 1);
+            int shift = (i & 1) << 2;
+            buffer.put(at, (byte) ((buffer.get(at) & ~(15 << shift)) | (count << shift)));
+        }
+
+        @Override
+        public void clearWord(int w) {
+            for (int plane = 0; plane < CellStore.PLANES; plane++) {
+                buffer.putLong(offset(plane, w), 0);
+            }
+            int at = counts + (w << 5);
+            for (int k = 0; k < 32; k += 8) {
+                buffer.putLong(at + k, 0);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (block != null) {
+                give(block);
+            }
+            block = null;
+            buffer = null;
+            stride = 0;
+        }
+    }
+}
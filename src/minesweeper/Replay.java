@@ -0,0 +1,92 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Plays a MoveLog back into a Game. Headless replays ignore the timestamps and run as fast as the rules allow,
+// and the fingerprint of the end state shows whether the same log always gives the same game.
+//
+//   java minesweeper.App --replay [log file] [--repeat N]
+//
+// Without a file the log of the last finished game (~/.minesweeper/last.mslog) is used.
+public class Replay {
+    // Rebuilds the logged game from its seed and applies every move, the game is left in the final state
+    static void run(MoveLog log, Game game) {
+        if (game.numRows != log.rows || game.numCols != log.cols || game.minecount != log.mines) {
+            game.setDifficulty(log.rows, log.cols, log.mines);
+        }
+        boolean recording = game.recording;
+        game.recording = false;
+        game.reset(log.seed);
+        MoveLog.Reader reader = log.reader();
+        while (reader.next()) {
+            game.apply(reader.action, reader.cell);
+        }
+        game.recording = recording;
+    }
+
+    // Hash of everything a replay has to reproduce: the board bitsets and the game counters
+    static long fingerprint(Game game) {
+        BoardModel model = game.model;
+        long hash = 1125899906842597L;
+        for (int w = 0; w < model.words; w++) {
+            for (int plane = 0; plane < CellStore.PLANES; plane++) {
+                hash = 31 * hash + model.word(plane, w);
+            }
+        }
+        hash = 31 * hash + game.state;
+        hash = 31 * hash + game.flagCount;
+        hash = 31 * hash + game.tilesClicked;
+        return hash == 0 ? 1 : hash; // 0 means no hash in the log
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = MoveLog.lastLogPath();
+        int repeat = 1000;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--repeat":
+                    repeat = Integer.parseInt(args[++k]);
+                    break;
+                default:
+                    path = Path.of(args[k]);
+                    break;
+            }
+        }
+
+        MoveLog log = MoveLog.read(path);
+        System.out.printf("%s: %dx%d, %d mines, %d moves in %d bytes, %.1f s of play%n", path, log.rows, log.cols,
+                log.mines, log.moves, log.size, log.durationMillis() / 1000.0);
+        if (log.partial) {
+            System.out.println("The game was resumed from a save, the replay starts from an empty board and will differ");
+        }
+
+        Game game = new Game(log.rows, log.cols, log.mines);
+        run(log, game);
+        long expected = fingerprint(game);
+        boolean deterministic = true;
+        long start = System.nanoTime();
+        for (int r = 1; r < repeat; r++) {
+            run(log, game);
+            if (fingerprint(game) != expected) {
+                deterministic = false;
+            }
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+
+        String[] states = {"playing", "won", "lost"};
+        System.out.printf("final state %s, %d cells opened, %d flags, fingerprint %016x%n",
+                states[game.state], game.tilesClicked, game.flagCount, expected);
+        if (repeat > 1) {
+            System.out.printf("%d replays in %.3f s: %.0f replays/s, %.0f moves/s%n", repeat - 1, seconds,
+                    (repeat - 1) / seconds, (double) (repeat - 1) * log.moves / seconds);
+        }
+        System.out.println("same end state on every replay: " + (deterministic ? "yes" : "NO"));
+        if (log.finalHash != 0) {
+            System.out.println("matches the recorded game: " + (log.finalHash == expected ? "yes" : "NO"));
+        }
+        if (!deterministic || (log.finalHash != 0 && log.finalHash != expected)) {
+            System.exit(1);
+        }
+    }
+}
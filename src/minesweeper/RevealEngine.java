@@ -0,0 +1,76 @@
+package minesweeper;
+
+// Opens a cell and cascades through the empty area around it.
+// Uses a flat int queue instead of recursion so big open boards can't overflow the stack,
+// and a cell is marked revealed as soon as it is queued so nothing is visited twice.
+public class RevealEngine {
+    final BoardModel model;
+    final RevealResult result = new RevealResult();
+
+    RevealEngine(BoardModel model) {
+        this.model = model;
+    }
+
+    // Cells opened by the last reveal, valid until the next call
+    static class RevealResult {
+        int[] cells = new int[0];
+        int count;
+        int flagsCleared;
+    }
+
+    RevealResult reveal(int start) {
+        return reveal(model, start);
+    }
+
+    // Same cascade on any board. Games played from one thread can share one engine and its queue this way.
+    RevealResult reveal(BoardModel model, int start) {
+        result.count = 0;
+        result.flagsCleared = 0;
+        if (model.isRevealed(start)) {
+            return result;
+        }
+        if (result.cells.length < model.cellCount) {
+            result.cells = new int[model.cellCount]; // Grown once per board size, then reused
+        }
+
+        int[] queue = result.cells;
+        int tail = 0;
+        open(model, start);
+        queue[tail++] = start;
+
+        int numCols = model.numCols;
+        int numRows = model.numRows;
+        for (int head = 0; head < tail; head++) {
+            int i = queue[head];
+            if (model.adjacentMines(i) != 0) {
+                continue; // Numbers stop the cascade
+            }
+            int r = i / numCols;
+            int c = i - r * numCols;
+            int rMin = Math.max(r - 1, 0), rMax = Math.min(r + 1, numRows - 1);
+            int cMin = Math.max(c - 1, 0), cMax = Math.min(c + 1, numCols - 1);
+            for (int nr = rMin; nr <= rMax; nr++) {
+                for (int nc = cMin; nc <= cMax; nc++) {
+                    int n = nr * numCols + nc;
+                    if (!model.isRevealed(n)) {
+                        open(model, n);
+                        queue[tail++] = n;
+                    }
+                }
+            }
+        }
+
+        result.count = tail;
+        return result;
+    }
+
+    // A flag or question mark on an opened cell is cleared, flags are counted so the caller can fix the mine counter
+    private void open(BoardModel model, int i) {
+        if (model.isFlagged(i)) {
+            model.setFlagged(i, false);
+            result.flagsCleared++;
+        }
+        model.setQuestioned(i, false);
+        model.setRevealed(i, true);
+    }
+}
@@ -0,0 +1,170 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Binary save format, little endian, read and written through a memory-mapped file:
+//
+//   header   48 bytes: magic, version, rows, cols, mine setting, first click, seed,
+//            elapsed seconds, flag count, tiles clicked, game state
+//   mines    one bit per cell
+//   low      one bit per cell  \  two bit cell state: 00 hidden, 01 revealed,
+//   high     one bit per cell  /                      10 flagged, 11 question mark
+//
+// Each plane is a run of 64-bit words in the same layout as BoardModel, so saving and loading are word copies
+// and a board of millions of cells fits in a few megabytes. Neighbour counts are not stored, they are rebuilt
+// from the mines.
+// A save is written to a file next to the target and moved over it, so a crash leaves the old save whole,
+// and a save that load() still has mapped is replaced rather than truncated (which Windows refuses).
+public class SaveFile {
+    static final int MAGIC = 0x4D535750; // "MSWP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 48;
+
+    static Path lastGamePath() {
+        return Path.of(System.getProperty("user.home"), ".minesweeper", "last.msw");
+    }
+
+    static void save(Game game, int elapsedSeconds, Path path) throws IOException {
+        BoardModel model = game.model;
+        int words = model.words;
+        long size = HEADER_BYTES + 3L * words * 8;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(game.numRows);
+            buffer.putInt(game.numCols);
+            buffer.putInt(game.minecount);
+            buffer.putInt(game.firstClick);
+            buffer.putLong(game.seed);
+            buffer.putInt(elapsedSeconds);
+            buffer.putInt(game.flagCount);
+            buffer.putInt(game.tilesClicked);
+            buffer.putInt(game.state);
+
+            LongBuffer planes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            for (int w = 0; w < words; w++) {
+                long question = model.word(CellStore.QUESTIONED, w);
+                planes.put(w, model.word(CellStore.MINES, w));
+                planes.put(words + w, model.word(CellStore.REVEALED, w) | question);
+                planes.put(2 * words + w, model.word(CellStore.FLAGGED, w) | question);
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Restores the saved game into game, resizing its board. Returns the elapsed seconds for the timer.
+    // Nothing is changed when the file is not a save this version understands. The opened and flagged counts
+    // are taken from the planes rather than the header, and planes that disagree with the header are rejected.
+    static int load(Game game, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Not a save file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a save file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported save version " + version);
+            }
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            int mines = buffer.getInt();
+            int firstClick = buffer.getInt();
+            long seed = buffer.getLong();
+            int elapsedSeconds = buffer.getInt();
+            buffer.getInt(); // Flag count and tiles clicked, counted from the planes below
+            buffer.getInt();
+            int state = buffer.getInt();
+
+            long cells = (long) rows * cols;
+            if (rows <= 0 || cols <= 0 || cells > Integer.MAX_VALUE - 63) {
+                throw new IOException("Bad board size " + rows + "x" + cols);
+            }
+            if (firstClick < -1 || firstClick >= cells || state < Game.PLAYING || state > Game.LOST
+                    || mines < 0 || mines > cells || elapsedSeconds < 0) {
+                throw new IOException("Corrupt save header");
+            }
+            int words = (int) ((cells + 63) >>> 6);
+            if (fileSize != HEADER_BYTES + 3L * words * 8) {
+                throw new IOException("Save file is truncated");
+            }
+
+            // Checked before anything is changed: the mines have to be the header's, and a game still being
+            // played can't have an opened mine
+            LongBuffer planes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            long lastWordMask = (cells & 63) == 0 ? -1L : (1L << cells) - 1; // Bits past the last cell stay clear
+            long mineCount = 0;
+            int tilesClicked = 0;
+            int flagCount = 0;
+            for (int w = 0; w < words; w++) {
+                long mask = w == words - 1 ? lastWordMask : -1L;
+                long mine = planes.get(w) & mask;
+                long low = planes.get(words + w) & mask;
+                long high = planes.get(2 * words + w) & mask;
+                long revealed = low & ~high;
+                if (state == Game.PLAYING && (mine & revealed) != 0) {
+                    throw new IOException("Corrupt save");
+                }
+                mineCount += Long.bitCount(mine);
+                tilesClicked += Long.bitCount(revealed);
+                flagCount += Long.bitCount(high & ~low);
+            }
+            if (mineCount != (firstClick >= 0 ? mines : 0) || flagCount > mines) {
+                throw new IOException("Corrupt save"); // No mines until the first click, then all of them
+            }
+
+            game.setDifficulty(rows, cols, mines);
+            game.reset(seed);
+            game.firstClick = firstClick;
+            game.flagCount = flagCount;
+            game.tilesClicked = tilesClicked;
+            game.state = state;
+            game.log.partial = true; // The moves before the save are not in the log
+
+            BoardModel model = game.model;
+            for (int w = 0; w < words; w++) {
+                long mask = w == words - 1 ? lastWordMask : -1L;
+                long mine = planes.get(w) & mask;
+                long low = planes.get(words + w) & mask;
+                long high = planes.get(2 * words + w) & mask;
+                if ((low | high) != 0) {
+                    model.setWord(CellStore.REVEALED, w, low & ~high);
+                    model.setWord(CellStore.FLAGGED, w, high & ~low);
+                    model.setWord(CellStore.QUESTIONED, w, low & high);
+                }
+                // Placing each mine also rebuilds the neighbour counts
+                while (mine != 0) {
+                    model.placeMine((w << 6) + Long.numberOfTrailingZeros(mine));
+                    mine &= mine - 1;
+                }
+            }
+            if (game.minesPlaced()) {
+                game.score();
+            }
+            if (game.history != null) {
+                game.history.reset(game); // Undo goes back as far as the saved board
+            }
+            return elapsedSeconds;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Plays games with no display at all, on every core, to measure the game engine and compare bots.
+// Each worker thread keeps its own Game, board buffers and bot for the whole run.
+//
+// java App --simulate [--games N] [--bot random|deduction|solver] [--difficulty beginner|intermediate|expert|RxCxM]
+//                     [--threads N] [--seed N] [--stats dir]
+// With --stats every game is appended to the StatsStore in dir, which should not be the player's own.
+public class Simulator {
+    // Picks the next cell to open, called until the game is over
+    interface Bot {
+        int nextMove(Game game, SplittableRandom random);
+    }
+
+    // Opens any hidden cell
+    static class RandomBot implements Bot {
+        @Override
+        public int nextMove(Game game, SplittableRandom random) {
+            return randomHidden(game.model, random);
+        }
+    }
+
+    // Opens cells the simple rules prove safe, guesses at random when they are stuck
+    static class DeductionBot implements Bot {
+        final Solver solver = new Solver();
+        final Solver.IntList pending = new Solver.IntList();
+
+        @Override
+        public int nextMove(Game game, SplittableRandom random) {
+            int cell = nextPending(game.model, pending);
+            if (cell >= 0 || !game.minesPlaced()) {
+                return cell >= 0 ? cell : randomHidden(game.model, random);
+            }
+            Solver.Analysis analysis = solver.deduce(game.model);
+            copySafe(analysis, pending);
+            cell = nextPending(game.model, pending);
+            return cell >= 0 ? cell : randomHidden(game.model, random);
+        }
+    }
+
+    // Opens proven safe cells, otherwise the cell with the lowest mine probability
+    static class SolverBot implements Bot {
+        final Solver solver = new Solver();
+        final Solver.IntList pending = new Solver.IntList();
+
+        @Override
+        public int nextMove(Game game, SplittableRandom random) {
+            int cell = nextPending(game.model, pending);
+            if (cell >= 0) {
+                return cell;
+            }
+            if (!game.minesPlaced()) {
+                return game.model.index(game.numRows / 2, game.numCols / 2);
+            }
+            Solver.Analysis analysis = solver.analyze(game.model, game.minecount);
+            copySafe(analysis, pending);
+            cell = nextPending(game.model, pending);
+            return cell >= 0 ? cell : analysis.bestGuess();
+        }
+    }
+
+    static Bot newBot(String name) {
+        switch (name) {
+            case "random":
+                return new RandomBot();
+            case "deduction":
+                return new DeductionBot();
+            case "solver":
+                return new SolverBot();
+            default:
+                throw new IllegalArgumentException("Unknown bot: " + name);
+        }
+    }
+
+    static int randomHidden(BoardModel model, SplittableRandom random) {
+        while (true) {
+            int i = random.nextInt(model.cellCount);
+            if (!model.isRevealed(i)) {
+                return i;
+            }
+        }
+    }
+
+    static int nextPending(BoardModel model, Solver.IntList pending) {
+        while (pending.size > 0) {
+            int cell = pending.data[--pending.size];
+            if (!model.isRevealed(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    static void copySafe(Solver.Analysis analysis, Solver.IntList pending) {
+        pending.clear();
+        for (int k = analysis.safe.size - 1; k >= 0; k--) {
+            pending.add(analysis.safe.get(k));
+        }
+    }
+
+    // Counters for one worker, merged at the end
+    static class Totals {
+        static final int BUCKETS = 32; // Cascade sizes in powers of two: 1, 2-3, 4-7, ...
+
+        long games;
+        long wins;
+        long moves;
+        long cellsOpened;
+        long threeBV; // Summed over the games
+        final long[] cascades = new long[BUCKETS];
+
+        void add(Totals other) {
+            games += other.games;
+            wins += other.wins;
+            moves += other.moves;
+            cellsOpened += other.cellsOpened;
+            threeBV += other.threeBV;
+            for (int k = 0; k < BUCKETS; k++) {
+                cascades[k] += other.cascades[k];
+            }
+        }
+    }
+
+    final int rows;
+    final int cols;
+    final int mines;
+    final String botName;
+    StatsStore stats; // null when the games aren't recorded
+
+    Simulator(int rows, int cols, int mines, String botName) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.botName = botName;
+    }
+
+    // Plays games numbered from the shared counter until there are none left
+    Totals runWorker(AtomicLong nextGame, long games, long baseSeed) {
+        Totals totals = new Totals();
+        Game game = new Game(rows, cols, mines);
+        Bot bot = newBot(botName);
+        for (long n = nextGame.getAndIncrement(); n < games; n = nextGame.getAndIncrement()) {
+            SplittableRandom random = new SplittableRandom(baseSeed ^ (n * 0x9E3779B97F4A7C15L));
+            game.reset(random.nextLong());
+            long start = System.nanoTime();
+            while (!game.isOver()) {
+                ChangeSet changes = game.reveal(bot.nextMove(game, random));
+                totals.moves++;
+                if (changes.openedDelta > 0) {
+                    totals.cellsOpened += changes.openedDelta;
+                    totals.cascades[31 - Integer.numberOfLeadingZeros(changes.openedDelta)]++;
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            game.score(); // After the clock, scoring isn't part of playing the game
+            totals.games++;
+            totals.threeBV += game.threeBV;
+            if (game.state == Game.WON) {
+                totals.wins++;
+            }
+            if (stats != null) {
+                stats.record(rows, cols, mines, game.state == Game.WON, millis, game.threeBV);
+            }
+        }
+        return totals;
+    }
+
+    Totals run(long games, int threads, long baseSeed) throws InterruptedException {
+        AtomicLong nextGame = new AtomicLong();
+        Totals[] perThread = new Totals[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> perThread[index] = runWorker(nextGame, games, baseSeed), "simulator-" + t);
+            workers[t].start();
+        }
+        Totals totals = new Totals();
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            totals.add(perThread[t]);
+        }
+        return totals;
+    }
+
+    static int[] parseDifficulty(String name) {
+        switch (name) {
+            case "beginner":
+                return new int[] {8, 8, 10};
+            case "intermediate":
+                return new int[] {16, 16, 40};
+            case "expert":
+                return new int[] {24, 24, 99};
+            default:
+                String[] parts = name.split("x");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Difficulty must be beginner, intermediate, expert or RxCxM: " + name);
+                }
+                return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        long games = 100_000;
+        String botName = "deduction";
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        List<String> difficulties = new ArrayList<>();
+        StatsStore stats = null;
+
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--games":
+                    games = Long.parseLong(args[++k]);
+                    break;
+                case "--bot":
+                    botName = args[++k];
+                    break;
+                case "--difficulty":
+                    difficulties.add(args[++k]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++k]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++k]);
+                    break;
+                case "--stats":
+                    stats = StatsStore.open(Path.of(args[++k]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[k]);
+            }
+        }
+        if (difficulties.isEmpty()) {
+            difficulties.add("beginner");
+            difficulties.add("intermediate");
+            difficulties.add("expert");
+        }
+        newBot(botName); // Fail fast on a bad name
+
+        System.out.printf("bot=%s games=%d threads=%d seed=%d%n", botName, games, threads, seed);
+        for (String name : difficulties) {
+            int[] d = parseDifficulty(name);
+            Simulator simulator = new Simulator(d[0], d[1], d[2], botName);
+            simulator.stats = stats;
+            long start = System.nanoTime();
+            Totals totals = simulator.run(games, threads, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            report(name, totals, seconds);
+        }
+        if (stats != null) {
+            stats.close();
+            System.out.printf("%d games in %s%n", stats.recordCount(), stats.logPath);
+        }
+    }
+
+    static void report(String name, Totals totals, double seconds) {
+        System.out.printf("%s: %d games in %.2fs, %.0f games/sec, win rate %.2f%%, %.1f moves/game, %.1f 3BV/game%n",
+                name, totals.games, seconds, totals.games / seconds,
+                totals.games > 0 ? totals.wins * 100.0 / totals.games : 0,
+                totals.games > 0 ? (double) totals.moves / totals.games : 0,
+                totals.games > 0 ? (double) totals.threeBV / totals.games : 0);
+        System.out.println("  cascade size    moves");
+        for (int k = 0; k < Totals.BUCKETS; k++) {
+            if (totals.cascades[k] > 0) {
+                long low = 1L << k;
+                long high = (1L << (k + 1)) - 1;
+                System.out.printf("  %5d-%-7d %10d%n", low, high, totals.cascades[k]);
+            }
+        }
+    }
+}
@@ -0,0 +1,953 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Works out what the revealed numbers say about the hidden cells, without looking at the mines.
+// First it runs cheap deductions (a number that is already satisfied, a number that needs all of its cells,
+// and pairs of overlapping numbers), then it splits the remaining frontier into independent pieces
+// and enumerates each piece on a fork-join pool to get the mine probability of every frontier cell.
+public class Solver {
+    static final byte UNKNOWN = 0;
+    static final byte SAFE = 1;
+    static final byte MINE = 2;
+
+    static final int MAX_EXACT_CELLS = 400; // Bigger pieces are estimated instead of enumerated
+    static final long MAX_NODES = 1L << 22; // Search budget per piece
+    static final int MAX_COUPLED_FRONTIER = 4000; // Past this the pieces are weighted independently
+
+    final ForkJoinPool pool;
+
+    Solver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    Solver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // What the solver found, cell indices are the model's
+    static class Analysis {
+        int cellCount;
+        IntList safe = new IntList(); // Hidden cells that can't be mines
+        IntList mines = new IntList(); // Hidden cells that must be mines
+        long[] safeBits;
+
+        int[] frontier = new int[0]; // Hidden cells next to a number that are still undecided
+        double[] probability = new double[0];
+        int interiorCount; // Hidden cells no number touches
+        double interiorProbability;
+        int interiorCell = -1;
+        boolean exact = true; // False when some piece was too big and only estimated
+
+        boolean isSafe(int i) {
+            return BoardModel.get(safeBits, i);
+        }
+
+        // A cell that is certainly safe if there is one, otherwise the least risky guess
+        int hintCell() {
+            if (safe.size > 0) {
+                return safe.get(0);
+            }
+            return bestGuess();
+        }
+
+        int bestGuess() {
+            int best = interiorCell;
+            double bestP = interiorCell >= 0 ? interiorProbability : 2;
+            for (int k = 0; k < frontier.length; k++) {
+                if (probability[k] < bestP) {
+                    bestP = probability[k];
+                    best = frontier[k];
+                }
+            }
+            return best;
+        }
+
+        double mineProbability(int i) {
+            if (isSafe(i)) {
+                return 0;
+            }
+            for (int k = 0; k < frontier.length; k++) {
+                if (frontier[k] == i) {
+                    return probability[k];
+                }
+            }
+            return mines.contains(i) ? 1 : interiorProbability;
+        }
+    }
+
+    // Growable int list, avoids boxing on big boards
+    static class IntList {
+        int[] data = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = v;
+        }
+
+        int get(int k) {
+            return data[k];
+        }
+
+        boolean contains(int v) {
+            for (int k = 0; k < size; k++) {
+                if (data[k] == v) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    // One revealed number: exactly `mines` of `cells` are mines
+    private static class Constraint {
+        int[] cells;
+        int size;
+        int mines;
+        boolean done;
+    }
+
+    // Everything known about one board while it is being analysed
+    private static class Work {
+        final BoardModel model;
+        final byte[] known;
+        final Analysis analysis = new Analysis();
+        final List<Constraint> constraints = new ArrayList<>();
+        int[] memberHead; // Per cell, first entry in the membership lists, -1 if none
+        int[] memberConstraint = new int[64];
+        int[] memberNext = new int[64];
+        int memberCount;
+        int knownMines;
+
+        Work(BoardModel model) {
+            this.model = model;
+            this.known = new byte[model.cellCount];
+        }
+
+        void markSafe(int i) {
+            if (known[i] == UNKNOWN) {
+                known[i] = SAFE;
+                analysis.safe.add(i);
+            }
+        }
+
+        void markMine(int i) {
+            if (known[i] == UNKNOWN) {
+                known[i] = MINE;
+                analysis.mines.add(i);
+                knownMines++;
+            }
+        }
+
+        void addMembership(int cell, int constraint) {
+            if (memberCount == memberConstraint.length) {
+                memberConstraint = Arrays.copyOf(memberConstraint, memberCount * 2);
+                memberNext = Arrays.copyOf(memberNext, memberCount * 2);
+            }
+            memberConstraint[memberCount] = constraint;
+            memberNext[memberCount] = memberHead[cell];
+            memberHead[cell] = memberCount++;
+        }
+    }
+
+    // Full analysis: deductions plus probabilities. Only revealed cells and their numbers are read.
+    Analysis analyze(BoardModel model, int totalMines) {
+        Work work = new Work(model);
+        deduce(work);
+        probabilities(work, totalMines);
+        return finish(work);
+    }
+
+    // Deductions only, no probabilities. Cheap enough to call in a loop when checking a board is solvable.
+    Analysis deduce(BoardModel model) {
+        Work work = new Work(model);
+        deduce(work);
+        return finish(work);
+    }
+
+    private Analysis finish(Work work) {
+        Analysis analysis = work.analysis;
+        analysis.cellCount = work.model.cellCount;
+        analysis.safeBits = new long[(work.model.cellCount + 63) >>> 6];
+        for (int k = 0; k < analysis.safe.size; k++) {
+            BoardModel.set(analysis.safeBits, analysis.safe.get(k), true);
+        }
+        return analysis;
+    }
+
+    private void deduce(Work work) {
+        BoardModel model = work.model;
+        int numRows = model.numRows;
+        int numCols = model.numCols;
+        work.memberHead = new int[model.cellCount];
+        Arrays.fill(work.memberHead, -1);
+
+        // One constraint per revealed number that still touches a hidden cell
+        int[] scratch = new int[8];
+        for (int i = model.nextRevealed(0); i >= 0; i = model.nextRevealed(i + 1)) {
+            work.known[i] = SAFE;
+            int count = model.adjacentMines(i);
+            if (count == 0) {
+                continue;
+            }
+            int r = i / numCols;
+            int c = i - r * numCols;
+            int size = 0;
+            for (int nr = Math.max(r - 1, 0); nr <= Math.min(r + 1, numRows - 1); nr++) {
+                for (int nc = Math.max(c - 1, 0); nc <= Math.min(c + 1, numCols - 1); nc++) {
+                    int n = nr * numCols + nc;
+                    if (!model.isRevealed(n)) {
+                        scratch[size++] = n;
+                    }
+                }
+            }
+            if (size == 0) {
+                continue;
+            }
+            Constraint constraint = new Constraint();
+            constraint.cells = Arrays.copyOf(scratch, size);
+            constraint.size = size;
+            constraint.mines = count;
+            int id = work.constraints.size();
+            work.constraints.add(constraint);
+            for (int k = 0; k < size; k++) {
+                work.addMembership(constraint.cells[k], id);
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = singleCellPass(work);
+            if (!changed) {
+                changed = pairPass(work);
+            }
+        }
+    }
+
+    // A number with no mines left clears its cells, a number that needs every cell fills them
+    private boolean singleCellPass(Work work) {
+        boolean changed = false;
+        for (Constraint constraint : work.constraints) {
+            if (constraint.done) {
+                continue;
+            }
+            compact(work, constraint);
+            if (constraint.size == 0) {
+                constraint.done = true;
+            } else if (constraint.mines == 0) {
+                for (int k = 0; k < constraint.size; k++) {
+                    work.markSafe(constraint.cells[k]);
+                }
+                constraint.done = true;
+                changed = true;
+            } else if (constraint.mines == constraint.size) {
+                for (int k = 0; k < constraint.size; k++) {
+                    work.markMine(constraint.cells[k]);
+                }
+                constraint.done = true;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Two overlapping numbers A and B: if B needs as many more mines than A as it has cells outside A,
+    // then all of B's own cells are mines and all of A's own cells are safe. Covers the subset rule too.
+    private boolean pairPass(Work work) {
+        List<Constraint> constraints = work.constraints;
+        int[] seen = new int[constraints.size()];
+        Arrays.fill(seen, -1);
+        int[] onlyA = new int[8];
+        int[] onlyB = new int[8];
+        boolean changed = false;
+
+        for (int a = 0; a < constraints.size(); a++) {
+            Constraint ca = constraints.get(a);
+            if (ca.done) {
+                continue;
+            }
+            compact(work, ca);
+            for (int k = 0; k < ca.size; k++) {
+                for (int m = work.memberHead[ca.cells[k]]; m >= 0; m = work.memberNext[m]) {
+                    int b = work.memberConstraint[m];
+                    if (b <= a || seen[b] == a) {
+                        continue;
+                    }
+                    seen[b] = a;
+                    Constraint cb = constraints.get(b);
+                    if (cb.done) {
+                        continue;
+                    }
+                    compact(work, cb);
+
+                    // Sorted merge into the cells only A has and the cells only B has
+                    int na = 0, nb = 0, x = 0, y = 0;
+                    while (x < ca.size || y < cb.size) {
+                        if (y == cb.size || (x < ca.size && ca.cells[x] < cb.cells[y])) {
+                            onlyA[na++] = ca.cells[x++];
+                        } else if (x == ca.size || cb.cells[y] < ca.cells[x]) {
+                            onlyB[nb++] = cb.cells[y++];
+                        } else {
+                            x++;
+                            y++;
+                        }
+                    }
+                    if (na + nb == 0) {
+                        continue;
+                    }
+                    if (cb.mines - ca.mines == nb) {
+                        changed |= resolve(work, onlyB, nb, onlyA, na);
+                    } else if (ca.mines - cb.mines == na) {
+                        changed |= resolve(work, onlyA, na, onlyB, nb);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean resolve(Work work, int[] mineCells, int mineCount, int[] safeCells, int safeCount) {
+        boolean changed = false;
+        for (int k = 0; k < mineCount; k++) {
+            changed |= work.known[mineCells[k]] == UNKNOWN;
+            work.markMine(mineCells[k]);
+        }
+        for (int k = 0; k < safeCount; k++) {
+            changed |= work.known[safeCells[k]] == UNKNOWN;
+            work.markSafe(safeCells[k]);
+        }
+        return changed;
+    }
+
+    // Drops cells that are now known, counting the mines among them
+    private void compact(Work work, Constraint constraint) {
+        int size = 0;
+        for (int k = 0; k < constraint.size; k++) {
+            int cell = constraint.cells[k];
+            byte state = work.known[cell];
+            if (state == UNKNOWN) {
+                constraint.cells[size++] = cell;
+            } else if (state == MINE) {
+                constraint.mines--;
+            }
+        }
+        constraint.size = size;
+    }
+
+    // Solutions of one independent piece of the frontier, grouped by how many mines they use
+    @SuppressWarnings("serial") // A fork-join task, never serialized
+    private static class Component extends RecursiveAction {
+        final int[] cells; // Model indices, the order is the search order
+        final int[][] cellConstraints; // Per local cell, the local constraints it belongs to
+        final int[] constraintMines;
+        final int[] constraintSize;
+
+        double[] solutions; // solutions[k] = number of solutions with k mines
+        double[] cellSolutions; // cellSolutions[cell * (n + 1) + k] = those where the cell is a mine
+        boolean exact = true;
+
+        private int[] assigned;
+        private int[] mineLeft;
+        private int[] unassigned;
+        private long nodes;
+
+        Component(int[] cells, int[][] cellConstraints, int[] constraintMines, int[] constraintSize) {
+            this.cells = cells;
+            this.cellConstraints = cellConstraints;
+            this.constraintMines = constraintMines;
+            this.constraintSize = constraintSize;
+        }
+
+        @Override
+        protected void compute() {
+            int n = cells.length;
+            if (n > MAX_EXACT_CELLS) {
+                exact = false;
+                return;
+            }
+            solutions = new double[n + 1];
+            cellSolutions = new double[n * (n + 1)];
+            assigned = new int[n];
+            mineLeft = constraintMines.clone();
+            unassigned = constraintSize.clone();
+            search(0, 0);
+            if (!exact) {
+                solutions = null;
+                cellSolutions = null;
+            }
+        }
+
+        private void search(int cell, int minesUsed) {
+            if (!exact || ++nodes > MAX_NODES) {
+                exact = false;
+                return;
+            }
+            int n = cells.length;
+            if (cell == n) {
+                solutions[minesUsed]++;
+                for (int k = 0; k < n; k++) {
+                    if (assigned[k] == 1) {
+                        cellSolutions[k * (n + 1) + minesUsed]++;
+                    }
+                }
+                return;
+            }
+            for (int value = 0; value <= 1; value++) {
+                if (assign(cell, value)) {
+                    assigned[cell] = value;
+                    search(cell + 1, minesUsed + value);
+                }
+                unassign(cell, value);
+            }
+        }
+
+        // Applies the value to every constraint of the cell, false if one of them can no longer be met
+        private boolean assign(int cell, int value) {
+            boolean ok = true;
+            for (int c : cellConstraints[cell]) {
+                unassigned[c]--;
+                mineLeft[c] -= value;
+                if (mineLeft[c] < 0 || mineLeft[c] > unassigned[c]) {
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+
+        private void unassign(int cell, int value) {
+            for (int c : cellConstraints[cell]) {
+                unassigned[c]++;
+                mineLeft[c] += value;
+            }
+        }
+    }
+
+    private void probabilities(Work work, int totalMines) {
+        BoardModel model = work.model;
+        Analysis analysis = work.analysis;
+        List<Constraint> constraints = work.constraints;
+
+        // Union the open constraints that share an undecided cell
+        int[] parent = new int[constraints.size()];
+        for (int k = 0; k < parent.length; k++) {
+            parent[k] = k;
+        }
+        for (int k = 0; k < constraints.size(); k++) {
+            Constraint constraint = constraints.get(k);
+            if (constraint.done) {
+                continue;
+            }
+            compact(work, constraint);
+            for (int j = 0; j < constraint.size; j++) {
+                for (int m = work.memberHead[constraint.cells[j]]; m >= 0; m = work.memberNext[m]) {
+                    int other = work.memberConstraint[m];
+                    if (!constraints.get(other).done) {
+                        union(parent, k, other);
+                    }
+                }
+            }
+        }
+
+        // Group constraints and their cells per piece, local ids are assigned in visiting order
+        int[] localCell = new int[model.cellCount];
+        Arrays.fill(localCell, -1);
+        int[] rootPiece = new int[constraints.size()];
+        Arrays.fill(rootPiece, -1);
+        List<IntList> pieceConstraints = new ArrayList<>();
+        for (int k = 0; k < constraints.size(); k++) {
+            Constraint constraint = constraints.get(k);
+            if (constraint.done || constraint.size == 0) {
+                continue;
+            }
+            int root = find(parent, k);
+            if (rootPiece[root] < 0) {
+                rootPiece[root] = pieceConstraints.size();
+                pieceConstraints.add(new IntList());
+            }
+            pieceConstraints.get(rootPiece[root]).add(k);
+        }
+
+        Component[] pieces = new Component[pieceConstraints.size()];
+        IntList frontier = new IntList();
+        for (int p = 0; p < pieces.length; p++) {
+            IntList ids = pieceConstraints.get(p);
+            IntList cells = new IntList();
+            int[] mines = new int[ids.size];
+            int[] sizes = new int[ids.size];
+            List<IntList> membership = new ArrayList<>();
+            for (int j = 0; j < ids.size; j++) {
+                Constraint constraint = constraints.get(ids.get(j));
+                mines[j] = constraint.mines;
+                sizes[j] = constraint.size;
+                for (int k = 0; k < constraint.size; k++) {
+                    int cell = constraint.cells[k];
+                    if (localCell[cell] < 0) {
+                        localCell[cell] = cells.size;
+                        cells.add(cell);
+                        frontier.add(cell);
+                        membership.add(new IntList());
+                    }
+                    membership.get(localCell[cell]).add(j);
+                }
+            }
+            int[][] cellConstraints = new int[cells.size][];
+            for (int k = 0; k < cells.size; k++) {
+                cellConstraints[k] = Arrays.copyOf(membership.get(k).data, membership.get(k).size);
+            }
+            pieces[p] = new Component(Arrays.copyOf(cells.data, cells.size), cellConstraints, mines, sizes);
+        }
+
+        // The pieces don't share any cells, so they are enumerated in parallel
+        if (pieces.length == 1) {
+            pieces[0].invoke();
+        } else if (pieces.length > 1) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(pieces);
+                }
+            });
+        }
+
+        IntList interiorCells = new IntList();
+        for (int i = 0; i < model.cellCount; i++) {
+            if (work.known[i] == UNKNOWN && localCell[i] < 0) {
+                if (analysis.interiorCell < 0) {
+                    analysis.interiorCell = i;
+                }
+                interiorCells.add(i);
+            }
+        }
+        int interior = interiorCells.size;
+        if (model.cellCount > 0 && model.nextRevealed(0) < 0) {
+            analysis.interiorCell = model.index(model.numRows / 2, model.numCols / 2); // Nothing open yet, start in the middle
+        }
+        analysis.interiorCount = interior;
+        int minesLeft = totalMines - work.knownMines;
+
+        Feasible feasible = combine(work, pieces, frontier, interior, minesLeft);
+
+        // When the frontier has to hold every mine left, no number touches the interior but it is proven all the
+        // same: safe, or all mines when the frontier can't hold any more. That takes the exact range of mine counts
+        // the frontier can hold, except with no mines left at all.
+        if (interior > 0 && (feasible != null || minesLeft == 0)) {
+            boolean safe = true;
+            boolean allMines = minesLeft > 0;
+            if (feasible != null) {
+                for (int k = 0; k < feasible.frontierTotals.length; k++) {
+                    if (feasible.frontierTotals[k]) {
+                        safe &= minesLeft - k == 0;
+                        allMines &= minesLeft - k == interior;
+                    }
+                }
+            }
+            if (safe) {
+                for (int k = 0; k < interior; k++) {
+                    work.markSafe(interiorCells.get(k));
+                }
+            } else if (allMines) {
+                for (int k = 0; k < interior; k++) {
+                    work.markMine(interiorCells.get(k));
+                }
+            }
+            if (work.known[interiorCells.get(0)] != UNKNOWN) {
+                analysis.interiorCount = 0; // Nothing left to guess at in there
+                analysis.interiorCell = -1;
+            }
+        }
+    }
+
+    // Weights every mix of piece solutions by how many ways the leftover mines fit in the interior cells.
+    // Returns the mine counts whole-board solutions allow, null unless every piece was enumerated.
+    private Feasible combine(Work work, Component[] pieces, IntList frontier, int interior, int minesLeft) {
+        Analysis analysis = work.analysis;
+        double[] probability = new double[frontier.size];
+        boolean[] proven = new boolean[frontier.size];
+
+        int[] pieceOffset = new int[pieces.length];
+        int offset = 0;
+        for (int p = 0; p < pieces.length; p++) {
+            pieceOffset[p] = offset;
+            offset += pieces[p].cells.length;
+            if (pieces[p].exact) {
+                Arrays.fill(proven, pieceOffset[p], offset, true);
+            } else {
+                analysis.exact = false;
+            }
+        }
+
+        if (frontier.size <= MAX_COUPLED_FRONTIER) {
+            analysis.interiorProbability = coupled(pieces, pieceOffset, probability, interior, minesLeft);
+        } else {
+            // Convolving every piece costs frontier squared, past this size the pieces are weighted independently
+            analysis.exact = false;
+            analysis.interiorProbability = factorised(pieces, pieceOffset, probability, interior, minesLeft);
+        }
+
+        // The probabilities are only for display, what is proven comes from the solution counts. With every piece
+        // enumerated only the mine counts that fit a whole-board solution are counted, otherwise every count is.
+        Feasible feasible = analysis.exact ? feasibleCounts(pieces, interior, minesLeft) : null;
+        for (int p = 0; p < pieces.length; p++) {
+            if (pieces[p].exact) {
+                boolean[] counts = feasible != null ? feasible.pieceCounts[p] : null;
+                certainFromCounts(pieces[p], counts, probability, pieceOffset[p], proven);
+            }
+        }
+
+        // Cells the enumeration proved are added to the certain lists, the rest form the frontier
+        IntList undecided = new IntList();
+        IntList openCells = new IntList();
+        for (int k = 0; k < frontier.size; k++) {
+            int cell = frontier.get(k);
+            if (proven[k] && probability[k] == 0) {
+                work.markSafe(cell);
+            } else if (proven[k]) {
+                work.markMine(cell);
+            } else {
+                undecided.add(cell);
+                openCells.add(k);
+            }
+        }
+        analysis.frontier = Arrays.copyOf(undecided.data, undecided.size);
+        analysis.probability = new double[openCells.size];
+        for (int k = 0; k < openCells.size; k++) {
+            analysis.probability[k] = probability[openCells.get(k)];
+        }
+        return feasible;
+    }
+
+    // Exact global weighting: convolves the mine count distributions of all pieces.
+    // Returns the interior mine probability.
+    private double coupled(Component[] pieces, int[] pieceOffset, double[] probability, int interior, int minesLeft) {
+        double[][] distributions = new double[pieces.length][];
+        for (int p = 0; p < pieces.length; p++) {
+            Component piece = pieces[p];
+            if (piece.exact) {
+                distributions[p] = normalise(piece.solutions);
+            } else {
+                int fixed = estimate(piece, probability, pieceOffset[p]);
+                distributions[p] = new double[fixed + 1];
+                distributions[p][fixed] = 1;
+            }
+        }
+
+        // prefix[p] is the mine count distribution of the pieces before p, suffix[p] of the pieces from p on
+        double[][] prefix = new double[pieces.length + 1][];
+        prefix[0] = new double[] {1};
+        for (int p = 0; p < pieces.length; p++) {
+            prefix[p + 1] = convolve(prefix[p], distributions[p]);
+        }
+        double[][] suffix = new double[pieces.length + 1][];
+        suffix[pieces.length] = new double[] {1};
+        for (int p = pieces.length - 1; p >= 0; p--) {
+            suffix[p] = convolve(distributions[p], suffix[p + 1]);
+        }
+
+        double[] all = prefix[pieces.length];
+        double[] weight = interiorWeights(all.length, interior, minesLeft);
+        for (int p = 0; p < pieces.length; p++) {
+            Component piece = pieces[p];
+            if (!piece.exact) {
+                continue;
+            }
+            // g[m] is the weight of everything else when this piece uses m mines
+            int n = piece.cells.length;
+            double[] others = convolve(prefix[p], suffix[p + 1]);
+            double[] g = new double[n + 1];
+            double total = 0;
+            for (int m = 0; m <= n; m++) {
+                for (int o = 0; o < others.length && m + o < weight.length; o++) {
+                    g[m] += others[o] * weight[m + o];
+                }
+                total += distributions[p][m] * g[m];
+            }
+            double scale = 1 / maxOf(piece.solutions); // Same scale normalise() used
+            for (int k = 0; k < n; k++) {
+                double mineWeight = 0;
+                for (int m = 0; m <= n; m++) {
+                    mineWeight += piece.cellSolutions[k * (n + 1) + m] * scale * g[m];
+                }
+                probability[pieceOffset[p] + k] = total > 0 ? mineWeight / total : 0;
+            }
+        }
+
+        double total = 0;
+        double interiorMines = 0;
+        for (int k = 0; k < all.length; k++) {
+            total += all[k] * weight[k];
+            interiorMines += all[k] * weight[k] * (minesLeft - k);
+        }
+        return interior > 0 && total > 0 ? clamp(interiorMines / total / interior) : 0;
+    }
+
+    // Approximates C(interior, minesLeft - K) by lambda^K, which makes every piece independent.
+    // lambda comes from the interior density and is refined a few times. Returns the interior mine probability.
+    private double factorised(Component[] pieces, int[] pieceOffset, double[] probability, int interior, int minesLeft) {
+        int unknown = interior + probability.length;
+        double density = unknown > 0 ? clamp((double) minesLeft / unknown) : 0;
+        for (int round = 0; round < 4; round++) {
+            double logLambda = Math.log(Math.max(density, 1e-12)) - Math.log(Math.max(1 - density, 1e-12));
+            double frontierMines = 0;
+            for (int p = 0; p < pieces.length; p++) {
+                Component piece = pieces[p];
+                if (!piece.exact) {
+                    frontierMines += estimate(piece, probability, pieceOffset[p]);
+                    continue;
+                }
+                // w[m] is lambda^m, scaled so the largest term of solutions[m] * w[m] is 1
+                int n = piece.cells.length;
+                double[] w = new double[n + 1];
+                double max = Double.NEGATIVE_INFINITY;
+                for (int m = 0; m <= n; m++) {
+                    if (piece.solutions[m] > 0) {
+                        max = Math.max(max, Math.log(piece.solutions[m]) + m * logLambda);
+                    }
+                }
+                double total = 0;
+                for (int m = 0; m <= n; m++) {
+                    w[m] = Math.exp(m * logLambda - max);
+                    total += piece.solutions[m] * w[m];
+                }
+                for (int k = 0; k < n; k++) {
+                    double mineWeight = 0;
+                    for (int m = 0; m <= n; m++) {
+                        mineWeight += piece.cellSolutions[k * (n + 1) + m] * w[m];
+                    }
+                    double p0 = total > 0 ? mineWeight / total : 0;
+                    probability[pieceOffset[p] + k] = p0;
+                    frontierMines += p0;
+                }
+            }
+            density = interior > 0 ? clamp((minesLeft - frontierMines) / interior) : 0;
+        }
+        return density;
+    }
+
+    // Leaves proven set only for cells that are never or always a mine across the piece's solutions with a
+    // feasible mine count, every count when feasible is null. The counts are whole numbers, so the sums are exact.
+    private static void certainFromCounts(Component piece, boolean[] feasible, double[] probability, int offset,
+            boolean[] proven) {
+        int n = piece.cells.length;
+        double solutions = 0;
+        for (int m = 0; m <= n; m++) {
+            if (feasible == null || feasible[m]) {
+                solutions += piece.solutions[m];
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            double asMine = 0;
+            for (int m = 0; m <= n; m++) {
+                if (feasible == null || feasible[m]) {
+                    asMine += piece.cellSolutions[k * (n + 1) + m];
+                }
+            }
+            if (asMine == 0) {
+                probability[offset + k] = 0;
+            } else if (asMine == solutions) {
+                probability[offset + k] = 1;
+            } else {
+                proven[offset + k] = false;
+            }
+        }
+    }
+
+    // The mine counts some whole-board solution allows, from the solution counts of pieces that were all enumerated
+    private static class Feasible {
+        final boolean[][] pieceCounts; // pieceCounts[p][m]: piece p can hold m mines
+        final boolean[] frontierTotals; // frontierTotals[k]: the frontier as a whole can hold k mines
+
+        Feasible(boolean[][] pieceCounts, boolean[] frontierTotals) {
+            this.pieceCounts = pieceCounts;
+            this.frontierTotals = frontierTotals;
+        }
+    }
+
+    // A piece's count is feasible when the other pieces and the interior can complete it to the whole board.
+    // Every piece must be exact. Null when no mix fits, the counts don't add up then.
+    private static Feasible feasibleCounts(Component[] pieces, int interior, int minesLeft) {
+        boolean[][] prefix = new boolean[pieces.length + 1][];
+        prefix[0] = new boolean[] {true};
+        for (int p = 0; p < pieces.length; p++) {
+            prefix[p + 1] = convolve(prefix[p], support(pieces[p]));
+        }
+        boolean[][] suffix = new boolean[pieces.length + 1][];
+        suffix[pieces.length] = new boolean[] {true};
+        for (int p = pieces.length - 1; p >= 0; p--) {
+            suffix[p] = convolve(support(pieces[p]), suffix[p + 1]);
+        }
+
+        boolean[][] feasible = new boolean[pieces.length][];
+        for (int p = 0; p < pieces.length; p++) {
+            Component piece = pieces[p];
+            boolean[] others = convolve(prefix[p], suffix[p + 1]);
+            feasible[p] = new boolean[piece.cells.length + 1];
+            boolean any = false;
+            for (int m = 0; m <= piece.cells.length; m++) {
+                if (piece.solutions[m] == 0) {
+                    continue;
+                }
+                for (int o = 0; o < others.length && !feasible[p][m]; o++) {
+                    feasible[p][m] = others[o] && fitsInterior(m + o, interior, minesLeft);
+                }
+                any |= feasible[p][m];
+            }
+            if (!any) {
+                return null;
+            }
+        }
+        boolean[] totals = prefix[pieces.length];
+        boolean any = false;
+        for (int k = 0; k < totals.length; k++) {
+            totals[k] &= fitsInterior(k, interior, minesLeft);
+            any |= totals[k];
+        }
+        return any ? new Feasible(feasible, totals) : null;
+    }
+
+    // True when the frontier holding this many mines leaves a count the interior can take
+    private static boolean fitsInterior(int frontierMines, int interior, int minesLeft) {
+        int rest = minesLeft - frontierMines;
+        return rest >= 0 && rest <= interior;
+    }
+
+    private static boolean[] support(Component piece) {
+        boolean[] out = new boolean[piece.solutions.length];
+        for (int m = 0; m < out.length; m++) {
+            out[m] = piece.solutions[m] > 0;
+        }
+        return out;
+    }
+
+    // The mine counts two independent sets of cells can hold together
+    private static boolean[] convolve(boolean[] a, boolean[] b) {
+        boolean[] out = new boolean[a.length + b.length - 1];
+        for (int x = 0; x < a.length; x++) {
+            if (!a[x]) {
+                continue;
+            }
+            for (int y = 0; y < b.length; y++) {
+                out[x + y] |= b[y];
+            }
+        }
+        return out;
+    }
+
+    // Too big to enumerate: each cell gets the densest of its numbers. Returns the rounded mine count.
+    private static int estimate(Component piece, double[] probability, int offset) {
+        double expected = 0;
+        for (int k = 0; k < piece.cells.length; k++) {
+            double p0 = 0;
+            for (int c : piece.cellConstraints[k]) {
+                p0 = Math.max(p0, (double) piece.constraintMines[c] / piece.constraintSize[c]);
+            }
+            probability[offset + k] = p0;
+            expected += p0;
+        }
+        return (int) Math.round(expected);
+    }
+
+    private static double clamp(double p) {
+        return Math.max(0, Math.min(1, p));
+    }
+
+    // weight[k] is proportional to C(interior, minesLeft - k), computed in logs so big boards don't overflow
+    private static double[] interiorWeights(int length, int interior, int minesLeft) {
+        double[] logs = new double[length];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < length; k++) {
+            logs[k] = logChoose(interior, minesLeft - k);
+            max = Math.max(max, logs[k]);
+        }
+        double[] weight = new double[length];
+        if (max == Double.NEGATIVE_INFINITY) {
+            // The counts don't add up (e.g. a wrong total), fall back to treating every mix alike
+            Arrays.fill(weight, 1);
+            return weight;
+        }
+        for (int k = 0; k < length; k++) {
+            weight[k] = Math.exp(logs[k] - max);
+        }
+        return weight;
+    }
+
+    static double logChoose(int n, int k) {
+        if (k < 0 || k > n) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    private static final double[] LOG_FACTORIAL = new double[256];
+
+    static {
+        for (int n = 2; n < LOG_FACTORIAL.length; n++) {
+            LOG_FACTORIAL[n] = LOG_FACTORIAL[n - 1] + Math.log(n);
+        }
+    }
+
+    // Stirling's series past the table, accurate to well under 1e-10 there
+    static double logFactorial(int n) {
+        if (n < LOG_FACTORIAL.length) {
+            return LOG_FACTORIAL[n];
+        }
+        double x = n + 1.0;
+        return (x - 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI) + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+
+    private static double[] normalise(double[] values) {
+        double max = maxOf(values);
+        double[] out = new double[values.length];
+        for (int k = 0; k < values.length; k++) {
+            out[k] = max > 0 ? values[k] / max : 0;
+        }
+        return out;
+    }
+
+    private static double maxOf(double[] values) {
+        double max = 0;
+        for (double v : values) {
+            max = Math.max(max, v);
+        }
+        return max;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] out = new double[a.length + b.length - 1];
+        for (int x = 0; x < a.length; x++) {
+            if (a[x] == 0) {
+                continue;
+            }
+            for (int y = 0; y < b.length; y++) {
+                out[x + y] += a[x] * b[y];
+            }
+        }
+        return out;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) {
+            parent[ra] = rb;
+        }
+    }
+}
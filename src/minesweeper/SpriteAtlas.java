@@ -0,0 +1,203 @@
+package minesweeper;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+// Every tile appearance pre-rendered once per tile size into a single strip image.
+// The PNGs are decoded once for the whole app, after that painting a cell is one drawImage
+// and switching difficulty or zoom level never allocates fonts, colours or icons again.
+// At startup preload() decodes them in the background. An atlas asked for before that is done is drawn
+// without the icons, which a new board of hidden tiles doesn't show anyway, and is replaced once they arrive.
+public class SpriteAtlas {
+    // Sprite indices, 0 to 8 are opened tiles showing that many neighbouring mines
+    static final int OPEN = 0;
+    static final int HIDDEN = 9;
+    static final int FLAG = 10;
+    static final int QUESTION = 11;
+    static final int MINE = 12;
+    static final int FLAGGED_MINE = 13;
+    static final int SPRITE_COUNT = 14;
+
+    static final Color HIDDEN_COLOR = new Color(198, 198, 198);
+    static final Color OPEN_COLOR = new Color(230, 230, 230);
+    static final Color GRID_COLOR = new Color(160, 160, 160);
+    static final Color[] NUMBER_COLORS = {
+        null,
+        Color.BLUE,
+        Color.GREEN,
+        Color.RED,
+        new Color(128, 0, 128), // Purple
+        new Color(128, 0, 0), // Maroon
+        new Color(0, 128, 128), // Teal
+        Color.BLACK,
+        Color.GRAY
+    };
+
+    private static final int MAX_CACHED = 16; // Zooming walks through sizes, keep the recent ones
+    private static final Map<Long, SpriteAtlas> cache = new LinkedHashMap<Long, SpriteAtlas>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SpriteAtlas> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private static BufferedImage mineImage;
+    private static BufferedImage flagImage;
+    private static BufferedImage flaggedMineImage;
+    private static volatile boolean imagesLoaded;
+    private static volatile CompletableFuture<Void> loading; // Set once preload() started decoding
+
+    final int tileSize;
+    final int fontSize;
+    final BufferedImage strip;
+    final boolean complete; // False when drawn before the images were decoded, the icons are missing
+
+    private SpriteAtlas(int tileSize, int fontSize, boolean complete) {
+        this.tileSize = tileSize;
+        this.fontSize = fontSize;
+        this.complete = complete;
+        this.strip = createImage(tileSize * SPRITE_COUNT, tileSize);
+        render();
+    }
+
+    // Rendering happens outside the lock, so the EDT never waits for the background thread to finish an atlas
+    static SpriteAtlas forTileSize(int tileSize, int fontSize) {
+        long key = ((long) tileSize << 32) | fontSize;
+        synchronized (cache) {
+            SpriteAtlas atlas = cache.get(key);
+            if (atlas != null) {
+                return atlas;
+            }
+        }
+        boolean complete = imagesLoaded || loading == null;
+        if (complete) {
+            loadImages(); // Nobody is decoding them in the background, so do it here
+        }
+        SpriteAtlas atlas = new SpriteAtlas(tileSize, fontSize, complete);
+        if (complete) {
+            synchronized (cache) {
+                cache.put(key, atlas);
+            }
+        }
+        return atlas;
+    }
+
+    // Decodes the images and renders the atlas the first board will ask for, on a pool thread.
+    // If that fails the error is printed and the background load forgotten, so the next atlas asked for decodes
+    // the images itself and throws the error to its caller. loadImages() waits for this method to return,
+    // so the task can't finish before loading is set.
+    static synchronized CompletableFuture<Void> preload(int tileSize, int fontSize) {
+        if (loading == null) {
+            loading = CompletableFuture.runAsync(() -> {
+                loadImages();
+                Startup.mark("images decoded");
+                forTileSize(tileSize, fontSize);
+                Startup.mark("sprites rendered");
+            }).whenComplete((done, error) -> {
+                if (error != null) {
+                    System.err.println("Could not decode the tile images in the background:");
+                    error.printStackTrace();
+                    synchronized (SpriteAtlas.class) {
+                        loading = null;
+                    }
+                }
+            });
+        }
+        return loading;
+    }
+
+    // Runs onEdt on the EDT once the background decode is over, for canvases holding an atlas without icons.
+    // It runs after a failed decode too, the canvas then asks again and gets the error.
+    static void whenImagesLoaded(Runnable onEdt) {
+        CompletableFuture<Void> pending = loading;
+        if (pending == null) {
+            SwingUtilities.invokeLater(onEdt);
+        } else {
+            pending.whenComplete((done, error) -> SwingUtilities.invokeLater(onEdt));
+        }
+    }
+
+    void draw(Graphics g, int sprite, int x, int y) {
+        int sx = sprite * tileSize;
+        g.drawImage(strip, x, y, x + tileSize, y + tileSize, sx, 0, sx + tileSize, tileSize, null);
+    }
+
+    private void render() {
+        Graphics2D g = strip.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setFont(new Font("Arial", Font.BOLD, fontSize)); // Font scales with tile size
+        FontMetrics fm = g.getFontMetrics();
+        int ts = tileSize;
+        int pad = Math.min(5, ts / 8);
+
+        for (int n = 0; n <= 8; n++) {
+            int x = n * ts;
+            g.setColor(OPEN_COLOR);
+            g.fillRect(x, 0, ts, ts);
+            g.setColor(GRID_COLOR);
+            g.drawRect(x, 0, ts - 1, ts - 1);
+            if (n > 0) {
+                drawCentered(g, fm, Integer.toString(n), NUMBER_COLORS[n], x);
+            }
+        }
+
+        for (int sprite = HIDDEN; sprite < SPRITE_COUNT; sprite++) {
+            int x = sprite * ts;
+            g.setColor(HIDDEN_COLOR);
+            g.fill3DRect(x, 0, ts, ts, true);
+        }
+        drawCentered(g, fm, "?", Color.BLACK, QUESTION * ts);
+        if (complete) {
+            g.drawImage(flagImage, FLAG * ts + pad, pad, ts - 2 * pad, ts - 2 * pad, null);
+            g.drawImage(mineImage, MINE * ts + pad, pad, ts - 2 * pad, ts - 2 * pad, null);
+            g.drawImage(flaggedMineImage, FLAGGED_MINE * ts + pad, pad, ts - 2 * pad, ts - 2 * pad, null);
+        }
+        g.dispose();
+    }
+
+    private void drawCentered(Graphics g, FontMetrics fm, String text, Color color, int x) {
+        g.setColor(color);
+        int tx = x + (tileSize - fm.stringWidth(text)) / 2;
+        int ty = (tileSize - fm.getHeight()) / 2 + fm.getAscent();
+        g.drawString(text, tx, ty);
+    }
+
+    // Matches the screen's pixel format when there is one, so blitting doesn't convert on every draw
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static synchronized void loadImages() {
+        if (imagesLoaded) {
+            return;
+        }
+        mineImage = readImage("Mine.png");
+        flagImage = readImage("Flag.png");
+        flaggedMineImage = readImage("FlaggedMine.png");
+        imagesLoaded = true;
+    }
+
+    private static BufferedImage readImage(String name) {
+        try (InputStream in = SpriteAtlas.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing image " + name);
+            }
+            return ImageIO.read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read image " + name, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+// Timestamps of the startup phases, from any thread, printed as a breakdown once the board is interactive.
+//
+//   -Dminesweeper.startup=print  print the breakdown to stderr
+//   -Dminesweeper.startup=exit   print it and exit, for timing launches in a script and for training a CDS archive
+public class Startup {
+    static final long MAIN_NANOS = System.nanoTime(); // App.main marks "main" first thing, which loads the class
+    static final String MODE = System.getProperty("minesweeper.startup");
+
+    private static final ArrayList<String> phases = new ArrayList<>();
+    private static final ArrayList<Long> times = new ArrayList<>();
+    private static boolean reported;
+
+    static synchronized void mark(String phase) {
+        phases.add(phase);
+        times.add(System.nanoTime() - MAIN_NANOS);
+    }
+
+    // The first board paint has happened and clicks go through, the end of startup
+    static void interactive() {
+        mark("interactive");
+        synchronized (Startup.class) {
+            if (MODE == null || reported) {
+                return;
+            }
+            reported = true;
+        }
+        System.err.print(report());
+        if (MODE.equals("exit")) {
+            System.exit(0);
+        }
+    }
+
+    // Milliseconds since the JVM started. Asking the JVM for its uptime loads the management classes,
+    // which is why it only happens here and not on the way to the first frame.
+    static synchronized String report() {
+        long now = System.nanoTime() - MAIN_NANOS;
+        double jvmToMain = ManagementFactory.getRuntimeMXBean().getUptime() - now / 1e6;
+        StringBuilder text = new StringBuilder("Startup, ms since the JVM started\n");
+        for (int k = 0; k < phases.size(); k++) {
+            text.append(String.format("%8.1f  %s%n", jvmToMain + times.get(k) / 1e6, phases.get(k)));
+        }
+        return text.toString();
+    }
+}
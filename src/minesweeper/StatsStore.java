@@ -0,0 +1,329 @@
+package minesweeper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Every finished game as a 24 byte record appended to stats.log, with per-board-size totals kept in memory:
+// games, wins, win streaks and the fastest wins, best first. The log is only ever appended to, by any number
+// of processes, and the totals are built by reading it, so games other processes append are counted as well.
+// Every SNAPSHOT_EVERY records the totals are written to stats.snap along with how much of the log they cover.
+// Opening the store reads the snapshot and then only the records after it.
+//
+// Record, little endian: long epoch millis, long board key (rows, cols, mines), int game millis,
+// int flags with the board's 3BV above the won bit (0 when it wasn't scored)
+public class StatsStore {
+    static final int MAGIC = 0x4D535354; // "MSST"
+    static final int VERSION = 1;
+    static final int SNAPSHOT_VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 24;
+    static final int WON = 1; // Flag bit
+    static final int MAX_3BV = Integer.MAX_VALUE >>> 1; // What fits above it
+    static final int TOP_KEPT = 100; // Fastest wins kept per board size, top-N queries go up to this
+    static final long SNAPSHOT_EVERY = 1_000_000; // Opening reads at most this many records past the snapshot, about 50 ms
+
+    // What is known about one board size
+    static class Totals {
+        final long key;
+        long games;
+        long wins;
+        long totalWinMillis;
+        long ratedWins; // Wins on a scored board, the ones 3BV/s is worked out from
+        long ratedThreeBV;
+        long ratedMillis;
+        double bestThreeBVPerSecond;
+        int streak; // Wins in a row up to the last game
+        int bestStreak;
+        int bestCount;
+        int[] bestMillis = new int[8]; // Fastest wins, ascending, ties keep the earlier game first
+        long[] bestWhen = new long[8];
+
+        Totals(long key) {
+            this.key = key;
+        }
+
+        void add(long when, int millis, boolean won, int threeBV) {
+            games++;
+            if (!won) {
+                streak = 0;
+                return;
+            }
+            wins++;
+            totalWinMillis += millis;
+            if (threeBV > 0 && millis > 0) {
+                ratedWins++;
+                ratedThreeBV += threeBV;
+                ratedMillis += millis;
+                bestThreeBVPerSecond = Math.max(bestThreeBVPerSecond, threeBV * 1000.0 / millis);
+            }
+            streak++;
+            bestStreak = Math.max(bestStreak, streak);
+            if (bestCount == TOP_KEPT && millis >= bestMillis[TOP_KEPT - 1]) {
+                return; // Not fast enough for the table, the usual case once it is full
+            }
+            int at = bestCount;
+            while (at > 0 && bestMillis[at - 1] > millis) {
+                at--;
+            }
+            if (bestCount < TOP_KEPT) {
+                if (bestCount == bestMillis.length) {
+                    bestMillis = Arrays.copyOf(bestMillis, Math.min(TOP_KEPT, bestCount * 2));
+                    bestWhen = Arrays.copyOf(bestWhen, bestMillis.length);
+                }
+                bestCount++;
+            }
+            System.arraycopy(bestMillis, at, bestMillis, at + 1, bestCount - at - 1);
+            System.arraycopy(bestWhen, at, bestWhen, at + 1, bestCount - at - 1);
+            bestMillis[at] = millis;
+            bestWhen[at] = when;
+        }
+
+        double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        // Over all rated wins together, so quick easy boards don't outweigh the long ones
+        double threeBVPerSecond() {
+            return ratedMillis == 0 ? 0 : ratedThreeBV * 1000.0 / ratedMillis;
+        }
+
+        int rows() {
+            return (int) (key >>> 44);
+        }
+
+        int cols() {
+            return (int) (key >>> 24) & 0xFFFFF;
+        }
+
+        int mines() {
+            return (int) key & 0xFFFFFF;
+        }
+    }
+
+    final Path logPath;
+    final Path snapshotPath;
+    private final FileChannel log; // For reading, and the header
+    private final FileChannel appender; // Opened for append, so writes from several processes never overlap
+    private final ByteBuffer pending = ByteBuffer.allocate(RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer reading = ByteBuffer.allocate(RECORD_BYTES * 4096).order(ByteOrder.LITTLE_ENDIAN);
+    private final HashMap<Long, Totals> totals = new HashMap<>();
+    private long indexed; // Log bytes the totals cover
+    private long snapshotAt; // Log bytes the snapshot on disk covers
+
+    private StatsStore(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        logPath = dir.resolve("stats.log");
+        snapshotPath = dir.resolve("stats.snap");
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            log.write(header, 0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            log.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                log.close();
+                throw new IOException("Not a statistics log: " + logPath);
+            }
+        }
+        appender = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        indexed = HEADER_BYTES;
+        readSnapshot();
+        catchUp();
+    }
+
+    static Path defaultDir() {
+        return Path.of(System.getProperty("user.home"), ".minesweeper");
+    }
+
+    static StatsStore open(Path dir) throws IOException {
+        return new StatsStore(dir);
+    }
+
+    // Board sizes go in one long, 20 bits each for rows and columns and 24 for the mines. -1 when it doesn't fit.
+    static long key(int rows, int cols, int mines) {
+        if (rows <= 0 || rows >= 1 << 20 || cols <= 0 || cols >= 1 << 20 || mines < 0 || mines >= 1 << 24) {
+            return -1;
+        }
+        return ((long) rows << 44) | ((long) cols << 24) | mines;
+    }
+
+    // Buffers the record, flush() writes it. Boards too big for a key are not recorded.
+    // threeBV is 0 for a board that wasn't scored.
+    synchronized void record(int rows, int cols, int mines, boolean won, long millis, int threeBV) {
+        long key = key(rows, cols, mines);
+        if (key < 0) {
+            return;
+        }
+        if (!pending.hasRemaining()) {
+            try {
+                flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                pending.clear(); // Drop the batch rather than grow without bound
+            }
+        }
+        pending.putLong(System.currentTimeMillis());
+        pending.putLong(key);
+        pending.putInt((int) Math.min(Integer.MAX_VALUE, Math.max(0, millis)));
+        pending.putInt((won ? WON : 0) | Math.min(MAX_3BV, Math.max(0, threeBV)) << 1);
+    }
+
+    // Appends what is buffered and takes in everything in the log, ours and other processes'
+    synchronized void flush() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            appender.write(pending);
+        }
+        pending.clear();
+        catchUp();
+        if (indexed - snapshotAt >= SNAPSHOT_EVERY * RECORD_BYTES) {
+            writeSnapshot();
+        }
+    }
+
+    synchronized void close() throws IOException {
+        flush();
+        if (indexed != snapshotAt) {
+            writeSnapshot();
+        }
+        appender.close();
+        log.close();
+    }
+
+    synchronized Totals totals(int rows, int cols, int mines) {
+        return totals.get(key(rows, cols, mines));
+    }
+
+    // Every board size played, most played first
+    synchronized ArrayList<Totals> allTotals() {
+        ArrayList<Totals> all = new ArrayList<>(totals.values());
+        all.sort((a, b) -> Long.compare(b.games, a.games));
+        return all;
+    }
+
+    // The n fastest wins in milliseconds, straight out of the kept table
+    synchronized int[] bestTimes(int rows, int cols, int mines, int n) {
+        Totals t = totals.get(key(rows, cols, mines));
+        return t == null ? new int[0] : Arrays.copyOf(t.bestMillis, Math.min(n, t.bestCount));
+    }
+
+    synchronized long recordCount() {
+        return (indexed - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    // Reads whole records from where the totals stop to the end of the log
+    private void catchUp() throws IOException {
+        long size = log.size();
+        while (size - indexed >= RECORD_BYTES) {
+            reading.clear();
+            reading.limit((int) Math.min(reading.capacity(), (size - indexed) / RECORD_BYTES * RECORD_BYTES));
+            while (reading.hasRemaining()) {
+                if (log.read(reading, indexed + reading.position()) < 0) {
+                    return;
+                }
+            }
+            reading.flip();
+            while (reading.remaining() >= RECORD_BYTES) {
+                long when = reading.getLong();
+                long key = reading.getLong();
+                int millis = reading.getInt();
+                int flags = reading.getInt();
+                totals.computeIfAbsent(key, Totals::new).add(when, millis, (flags & WON) != 0, flags >>> 1);
+                indexed += RECORD_BYTES;
+            }
+        }
+    }
+
+    // A missing, broken or newer-than-the-log snapshot just means reading the whole log
+    private void readSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return;
+        }
+        HashMap<Long, Totals> loaded = new HashMap<>();
+        long covers;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                return;
+            }
+            covers = in.readLong();
+            if (covers < HEADER_BYTES || covers > log.size() || (covers - HEADER_BYTES) % RECORD_BYTES != 0) {
+                return; // The log was replaced or cut short since
+            }
+            int count = in.readInt();
+            for (int k = 0; k < count; k++) {
+                Totals t = new Totals(in.readLong());
+                t.games = in.readLong();
+                t.wins = in.readLong();
+                t.totalWinMillis = in.readLong();
+                t.ratedWins = in.readLong();
+                t.ratedThreeBV = in.readLong();
+                t.ratedMillis = in.readLong();
+                t.bestThreeBVPerSecond = in.readDouble();
+                t.streak = in.readInt();
+                t.bestStreak = in.readInt();
+                t.bestCount = in.readInt();
+                if (t.bestCount < 0 || t.bestCount > TOP_KEPT) {
+                    return;
+                }
+                t.bestMillis = new int[Math.max(8, t.bestCount)];
+                t.bestWhen = new long[t.bestMillis.length];
+                for (int b = 0; b < t.bestCount; b++) {
+                    t.bestMillis[b] = in.readInt();
+                    t.bestWhen[b] = in.readLong();
+                }
+                loaded.put(t.key, t);
+            }
+        } catch (IOException e) {
+            return;
+        }
+        totals.putAll(loaded);
+        indexed = covers;
+        snapshotAt = covers;
+    }
+
+    // Written next to the old one and moved over it, so a crash leaves one or the other whole
+    private void writeSnapshot() throws IOException {
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(indexed);
+            out.writeInt(totals.size());
+            for (Totals t : totals.values()) {
+                out.writeLong(t.key);
+                out.writeLong(t.games);
+                out.writeLong(t.wins);
+                out.writeLong(t.totalWinMillis);
+                out.writeLong(t.ratedWins);
+                out.writeLong(t.ratedThreeBV);
+                out.writeLong(t.ratedMillis);
+                out.writeDouble(t.bestThreeBVPerSecond);
+                out.writeInt(t.streak);
+                out.writeInt(t.bestStreak);
+                out.writeInt(t.bestCount);
+                for (int b = 0; b < t.bestCount; b++) {
+                    out.writeInt(t.bestMillis[b]);
+                    out.writeLong(t.bestWhen[b]);
+                }
+            }
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotAt = indexed;
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class BoardScorerTest {
+    @Test
+    void openingOnEachSideOfAWall() {
+        BoardModel model = RevealEngineTest.wall();
+        BoardScorer scorer = new BoardScorer();
+        scorer.score(model);
+        assertEquals(2, scorer.openings);
+        assertEquals(0, scorer.islands);
+        assertEquals(2, scorer.threeBV());
+    }
+
+    @Test
+    void numbersWithNoOpeningAreClickedOneByOne() {
+        BoardModel model = new BoardModel(3, 3);
+        model.placeMine(4);
+        BoardScorer scorer = new BoardScorer();
+        scorer.score(model);
+        assertEquals(0, scorer.openings);
+        assertEquals(1, scorer.islands);
+        assertEquals(8, scorer.threeBV());
+    }
+
+    // One mine in each corner of a 5x5: a single opening reaches every number
+    @Test
+    void cornersAroundOneOpening() {
+        BoardModel model = new BoardModel(5, 5);
+        model.placeMine(model.index(0, 0));
+        model.placeMine(model.index(0, 4));
+        model.placeMine(model.index(4, 0));
+        model.placeMine(model.index(4, 4));
+        BoardScorer scorer = new BoardScorer();
+        scorer.score(model);
+        assertEquals(1, scorer.openings);
+        assertEquals(1, scorer.threeBV());
+    }
+
+    // Past PARALLEL_CELLS the board is scored in strips, the result has to match a single pass
+    @Test
+    void stripsAgreeWithOnePass() {
+        int rows = 600;
+        int cols = 600;
+        BoardModel big = new BoardModel(rows, cols);
+        new MinePlacer().place(big, rows * cols / 6, 5, -1);
+        BoardScorer scorer = new BoardScorer();
+        scorer.score(big);
+
+        int openings = 0;
+        int isolated = 0;
+        BoardModel copy = new BoardModel(rows, cols);
+        RevealEngine engine = new RevealEngine(copy);
+        for (int i = 0; i < big.cellCount; i++) {
+            if (big.isMine(i)) {
+                copy.placeMine(i);
+            }
+        }
+        for (int i = 0; i < copy.cellCount; i++) {
+            if (!copy.isMine(i) && copy.adjacentMines(i) == 0 && !copy.isRevealed(i)) {
+                engine.reveal(i);
+                openings++;
+            }
+        }
+        for (int i = 0; i < copy.cellCount; i++) {
+            if (!copy.isMine(i) && !copy.isRevealed(i)) {
+                isolated++;
+            }
+        }
+        assertEquals(openings, scorer.openings);
+        assertEquals(openings + isolated, scorer.threeBV());
+    }
+}
@@ -0,0 +1,54 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class EndlessCanvasTest {
+    static final int WIDTH = 200;
+    static final int HEIGHT = 150;
+
+    static EndlessCanvas canvas() {
+        EndlessCanvas canvas = new EndlessCanvas(new EndlessBoard(1, EndlessMode.DENSITY, 1 << 20), 16);
+        canvas.setSize(WIDTH, HEIGHT);
+        return canvas;
+    }
+
+    static void paint(EndlessCanvas canvas) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> canvas.paint(g));
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Far past the end of the int range, the camera is clamped to the last cells and painting them terminates
+    @Test
+    void paintsAtTheLargestCamera() {
+        EndlessCanvas canvas = canvas();
+        canvas.viewX = Long.MAX_VALUE / 4;
+        canvas.viewY = Long.MAX_VALUE / 4;
+        canvas.pan(0, 0);
+        assertEquals(Integer.MAX_VALUE - 1, canvas.cellX(WIDTH - 1));
+        assertEquals(Integer.MAX_VALUE - 1, canvas.cellY(HEIGHT - 1));
+        paint(canvas);
+    }
+
+    @Test
+    void paintsAtTheSmallestCamera() {
+        EndlessCanvas canvas = canvas();
+        canvas.viewX = Long.MIN_VALUE / 4;
+        canvas.viewY = Long.MIN_VALUE / 4;
+        canvas.pan(0, 0);
+        assertEquals(Integer.MIN_VALUE, canvas.cellX(0));
+        assertEquals(Integer.MIN_VALUE, canvas.cellY(0));
+        paint(canvas);
+    }
+}
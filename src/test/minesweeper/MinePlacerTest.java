@@ -0,0 +1,68 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class MinePlacerTest {
+    static long[] mineWords(BoardModel model) {
+        long[] words = new long[model.words];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = model.word(CellStore.MINES, w);
+        }
+        return words;
+    }
+
+    static BoardModel placed(int rows, int cols, int mines, long seed, int safeCell) {
+        BoardModel model = new BoardModel(rows, cols);
+        new MinePlacer().place(model, mines, seed, safeCell);
+        return model;
+    }
+
+    @Test
+    void sameSeedAndClickGiveTheSameBoard() {
+        BoardModel a = placed(16, 30, 99, 7, 5 * 30 + 5);
+        BoardModel b = placed(16, 30, 99, 7, 5 * 30 + 5);
+        assertEquals(99, a.mineCount);
+        assertArrayEquals(mineWords(a), mineWords(b));
+
+        BoardModel other = placed(16, 30, 99, 8, 5 * 30 + 5);
+        assertFalse(Arrays.equals(mineWords(a), mineWords(other)));
+    }
+
+    @Test
+    void firstClickAndItsNeighboursAreClear() {
+        for (long seed = 0; seed < 50; seed++) {
+            BoardModel model = placed(16, 30, 99, seed, 0);
+            for (int r = 0; r <= 1; r++) {
+                for (int c = 0; c <= 1; c++) {
+                    assertFalse(model.isMine(r, c), "mine next to the first click with seed " + seed);
+                }
+            }
+            assertEquals(0, model.adjacentMines(0));
+        }
+    }
+
+    @Test
+    void tooDenseForTheNeighboursKeepsJustTheCell() {
+        BoardModel model = placed(3, 3, 8, 1, 4);
+        assertEquals(8, model.mineCount);
+        assertFalse(model.isMine(4));
+        assertEquals(8, model.adjacentMines(4));
+    }
+
+    @Test
+    void reusedPlacerStillMatches() {
+        MinePlacer placer = new MinePlacer();
+        BoardModel big = new BoardModel(30, 30);
+        placer.place(big, 200, 3, 0);
+        BoardModel small = new BoardModel(9, 9);
+        placer.place(small, 10, 11, 40);
+        assertArrayEquals(mineWords(placed(9, 9, 10, 11, 40)), mineWords(small));
+        assertEquals(10, small.mineCount);
+    }
+}
@@ -0,0 +1,64 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RevealEngineTest {
+    // 3x5 with a wall of mines down the middle column:
+    //   . 2 * 2 .
+    //   . 3 * 3 .
+    //   . 2 * 2 .
+    static BoardModel wall() {
+        BoardModel model = new BoardModel(3, 5);
+        for (int r = 0; r < 3; r++) {
+            model.placeMine(model.index(r, 2));
+        }
+        return model;
+    }
+
+    @Test
+    void cascadeStopsAtNumbers() {
+        BoardModel model = wall();
+        RevealEngine.RevealResult result = new RevealEngine(model).reveal(model.index(0, 0));
+        assertEquals(6, result.count);
+        for (int r = 0; r < 3; r++) {
+            assertTrue(model.isRevealed(model.index(r, 0)));
+            assertTrue(model.isRevealed(model.index(r, 1)));
+            assertFalse(model.isRevealed(model.index(r, 3)));
+            assertFalse(model.isRevealed(model.index(r, 4)));
+        }
+        assertEquals(2, model.adjacentMines(model.index(0, 1)));
+        assertEquals(3, model.adjacentMines(model.index(1, 1)));
+        assertEquals(2, model.adjacentMines(model.index(2, 1)));
+    }
+
+    @Test
+    void numberOpensAlone() {
+        BoardModel model = wall();
+        RevealEngine.RevealResult result = new RevealEngine(model).reveal(model.index(1, 3));
+        assertEquals(1, result.count);
+        assertEquals(model.index(1, 3), result.cells[0]);
+    }
+
+    @Test
+    void openedCellIsNotOpenedTwice() {
+        BoardModel model = wall();
+        RevealEngine engine = new RevealEngine(model);
+        engine.reveal(model.index(0, 4));
+        assertEquals(0, engine.reveal(model.index(2, 4)).count);
+    }
+
+    @Test
+    void cascadeClearsFlags() {
+        BoardModel model = wall();
+        model.setFlagged(model.index(1, 0), true);
+        model.setQuestioned(model.index(2, 0), true);
+        RevealEngine.RevealResult result = new RevealEngine(model).reveal(model.index(0, 0));
+        assertEquals(1, result.flagsCleared);
+        assertFalse(model.isFlagged(model.index(1, 0)));
+        assertFalse(model.isQuestioned(model.index(2, 0)));
+    }
+}
@@ -0,0 +1,136 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SaveAndReplayTest {
+    @TempDir
+    Path dir;
+
+    // A game part way through: the first click, a flag, a question mark and a few more safe cells opened
+    static Game played() {
+        Game game = new Game(16, 30, 99);
+        game.reset(1234);
+        game.apply(Game.REVEAL, game.model.index(8, 15));
+        int flagged = 0;
+        int opened = 0;
+        for (int i = 0; i < game.model.cellCount && (flagged < 2 || opened < 3); i++) {
+            if (game.model.isRevealed(i)) {
+                continue;
+            }
+            if (game.model.isMine(i) && flagged < 2) {
+                game.apply(Game.MARK, i);
+                if (flagged++ == 1) {
+                    game.apply(Game.MARK, i); // Flag to question mark
+                }
+            } else if (!game.model.isMine(i) && opened < 3) {
+                game.apply(Game.REVEAL, i);
+                opened++;
+            }
+        }
+        return game;
+    }
+
+    @Test
+    void saveAndLoadGiveTheSameGame() throws IOException {
+        Game game = played();
+        Path path = dir.resolve("game.msw");
+        SaveFile.save(game, 42, path);
+
+        Game loaded = new Game(9, 9, 10);
+        assertEquals(42, SaveFile.load(loaded, path));
+        assertEquals(Replay.fingerprint(game), Replay.fingerprint(loaded));
+        assertEquals(game.seed, loaded.seed);
+        assertEquals(game.firstClick, loaded.firstClick);
+        assertEquals(game.model.mineCount, loaded.model.mineCount);
+        for (int i = 0; i < game.model.cellCount; i++) {
+            assertEquals(game.model.adjacentMines(i), loaded.model.adjacentMines(i));
+        }
+        game.score();
+        assertEquals(game.threeBV, loaded.threeBV);
+        assertTrue(loaded.model.isQuestioned(loaded.model.nextSetBit(CellStore.QUESTIONED, 0)));
+    }
+
+    @Test
+    void truncatedSaveIsRejected() throws IOException {
+        Path path = dir.resolve("game.msw");
+        SaveFile.save(played(), 0, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> SaveFile.load(new Game(9, 9, 10), path));
+    }
+
+    @Test
+    void headerThatDisagreesWithThePlanesIsRejected() throws IOException {
+        Path path = dir.resolve("game.msw");
+        SaveFile.save(played(), 0, path);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(16, 98); // The mine count
+        Files.write(path, bytes);
+        Game game = new Game(9, 9, 10);
+        assertThrows(IOException.class, () -> SaveFile.load(game, path));
+        assertEquals(9, game.numRows); // Left as it was
+    }
+
+    @Test
+    void openedMineInAGameBeingPlayedIsRejected() throws IOException {
+        Game played = played();
+        assertEquals(Game.PLAYING, played.state);
+        Path path = dir.resolve("game.msw");
+        SaveFile.save(played, 0, path);
+        byte[] bytes = Files.readAllBytes(path);
+        int mine = played.model.nextSetBit(CellStore.MINES, 0);
+        while (played.model.isFlagged(mine) || played.model.isQuestioned(mine)) {
+            mine = played.model.nextSetBit(CellStore.MINES, mine + 1); // A marked cell's low bit means a question mark
+        }
+        int low = SaveFile.HEADER_BYTES + (played.model.words + (mine >>> 6)) * 8 + ((mine & 63) >>> 3);
+        bytes[low] |= (byte) (1 << (mine & 7));
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> SaveFile.load(new Game(9, 9, 10), path));
+    }
+
+    // The counters come from the planes, so a header with wrong ones still loads a game that can be won
+    @Test
+    void countersAreTakenFromThePlanes() throws IOException {
+        Game played = played();
+        Path path = dir.resolve("game.msw");
+        SaveFile.save(played, 0, path);
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(36, 0); // Flag count
+        header.putInt(40, 1); // Tiles clicked
+        Files.write(path, bytes);
+        Game loaded = new Game(9, 9, 10);
+        SaveFile.load(loaded, path);
+        assertEquals(played.flagCount, loaded.flagCount);
+        assertEquals(played.tilesClicked, loaded.tilesClicked);
+    }
+
+    @Test
+    void replayedLogGivesTheSameGame() throws IOException {
+        Game game = played();
+        Path path = dir.resolve("game.mslog");
+        game.log.write(path);
+
+        MoveLog log = MoveLog.read(path);
+        assertEquals(game.log.moves, log.moves);
+        Game replayed = new Game(9, 9, 10);
+        Replay.run(log, replayed);
+        assertEquals(Replay.fingerprint(game), Replay.fingerprint(replayed));
+        assertEquals(game.state, replayed.state);
+
+        Replay.run(log, replayed); // Again on the same game, as --replay --repeat does
+        assertEquals(Replay.fingerprint(game), Replay.fingerprint(replayed));
+    }
+}
@@ -0,0 +1,61 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SolverTest {
+    // One row of six with a mine at 1 and only cell 2 open: its 1 says one of cells 1 and 3 is a mine,
+    // cells 0, 4 and 5 are interior
+    static BoardModel row() {
+        BoardModel model = new BoardModel(1, 6);
+        model.placeMine(1);
+        model.setRevealed(2, true);
+        return model;
+    }
+
+    @Test
+    void interiorIsSafeWhenTheFrontierHoldsEveryMine() {
+        Solver.Analysis analysis = new Solver().analyze(row(), 1);
+        assertTrue(analysis.isSafe(0));
+        assertTrue(analysis.isSafe(4));
+        assertTrue(analysis.isSafe(5));
+        assertFalse(analysis.isSafe(1));
+        assertFalse(analysis.isSafe(3));
+        assertEquals(0.5, analysis.mineProbability(1), 1e-9);
+    }
+
+    @Test
+    void interiorIsAllMinesWhenTheFrontierCantHoldMore() {
+        Solver.Analysis analysis = new Solver().analyze(row(), 4);
+        assertTrue(analysis.mines.contains(0));
+        assertTrue(analysis.mines.contains(4));
+        assertTrue(analysis.mines.contains(5));
+        assertEquals(0, analysis.safe.size);
+    }
+
+    @Test
+    void interiorIsOpenWhenMinesCanGoEitherWay() {
+        Solver.Analysis analysis = new Solver().analyze(row(), 2);
+        assertEquals(0, analysis.safe.size);
+        assertEquals(0, analysis.mines.size);
+        assertEquals(3, analysis.interiorCount);
+    }
+
+    @Test
+    void overlappingNumbersClearTheCellsOnlyOneTouches() {
+        // 2x3 with a mine at 0 and cells 3 and 4 open: 3 says one mine in {0, 1}, 4 says one in {0, 1, 2, 5}
+        BoardModel model = new BoardModel(2, 3);
+        model.placeMine(0);
+        model.setRevealed(3, true);
+        model.setRevealed(4, true);
+        Solver.Analysis analysis = new Solver().deduce(model);
+        assertTrue(analysis.isSafe(2));
+        assertTrue(analysis.isSafe(5));
+        assertFalse(analysis.isSafe(0));
+        assertFalse(analysis.isSafe(1));
+        assertEquals(0, analysis.mines.size);
+    }
+}